@@ -1,13 +1,15 @@
 package com.antigravity.demo.config;
 
 import com.antigravity.demo.model.Role;
-import com.antigravity.demo.model.User;
+import com.antigravity.demo.model.UuidV7;
 import com.antigravity.demo.repository.UserRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+
 @Configuration
 public class DataInitializer {
 
@@ -15,24 +17,20 @@ public class DataInitializer {
     public CommandLineRunner dataLoader(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         return args -> {
             // Seed Admin
-            if (!userRepository.existsByEmail("admin@demo.com")) {
-                User admin = new User();
-                admin.setEmail("admin@demo.com");
-                admin.setPasswordHash(passwordEncoder.encode("Admin123!"));
-                admin.setRole(Role.ADMIN);
-                userRepository.save(admin);
+            if (seed(userRepository, "admin@demo.com", passwordEncoder.encode("Admin123!"), Role.ADMIN)) {
                 System.out.println("Seeded admin user: admin@demo.com");
             }
 
             // Seed User
-            if (!userRepository.existsByEmail("user@demo.com")) {
-                User user = new User();
-                user.setEmail("user@demo.com");
-                user.setPasswordHash(passwordEncoder.encode("User123!"));
-                user.setRole(Role.USER);
-                userRepository.save(user);
+            if (seed(userRepository, "user@demo.com", passwordEncoder.encode("User123!"), Role.USER)) {
                 System.out.println("Seeded regular user: user@demo.com");
             }
         };
     }
+
+    // Skips an email taken in any case, and cannot fail when several nodes start at once
+    private static boolean seed(UserRepository userRepository, String email, String passwordHash, Role role) {
+        return userRepository.insertIfEmailAvailable(UuidV7.generate(), email, passwordHash, role.name(),
+                Instant.now()) == 1;
+    }
 }
@@ -0,0 +1,80 @@
+package com.antigravity.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Caffeine-backed JCache regions for the Hibernate second-level cache.
+ * Regions are sized from application.yml and exported as cache.* meters
+ * (hits, misses, puts, evictions, size) tagged with the region name.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String PRODUCTS_REGION = "products";
+    public static final String USERS_REGION = "users";
+
+    // Hibernate's fixed region names for the query cache
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${application.cache.products.max-size}") long productsMaxSize,
+            @Value("${application.cache.products.ttl}") Duration productsTtl,
+            @Value("${application.cache.users.max-size}") long usersMaxSize,
+            @Value("${application.cache.users.ttl}") Duration usersTtl,
+            @Value("${application.cache.query-results.max-size}") long queryResultsMaxSize,
+            @Value("${application.cache.query-results.ttl}") Duration queryResultsTtl) {
+        // A private URI per application context so that several contexts in one JVM never share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(PRODUCTS_REGION, boundedRegion(productsMaxSize, productsTtl));
+        cacheManager.createCache(USERS_REGION, boundedRegion(usersMaxSize, usersTtl));
+        cacheManager.createCache(QUERY_RESULTS_REGION, boundedRegion(queryResultsMaxSize, queryResultsTtl));
+
+        // One entry per table; Hibernate requires that these never expire before the query results do
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setNativeStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, timestamps);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> hibernateCacheManager.getCacheNames().forEach(region -> CaffeineCacheMetrics.monitor(
+                registry,
+                hibernateCacheManager.getCache(region).unwrap(com.github.benmanes.caffeine.cache.Cache.class),
+                region));
+    }
+
+    private static CaffeineConfiguration<Object, Object> boundedRegion(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -6,6 +6,8 @@ import com.antigravity.demo.repository.UserRepository;
 import com.antigravity.demo.security.JwtAuthenticationFilter;
 import com.antigravity.demo.security.RestAccessDeniedHandler;
 import com.antigravity.demo.security.RestAuthenticationEntryPoint;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -22,6 +24,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -31,6 +34,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static com.antigravity.demo.model.Role.ADMIN;
 import static com.antigravity.demo.model.Role.USER;
@@ -39,6 +43,8 @@ import static com.antigravity.demo.model.Role.USER;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final TraceIdFilter traceIdFilter;
     private final UserRepository userRepository;
@@ -61,7 +67,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider)
+            throws Exception {
         boolean isProd = java.util.Arrays.asList(env.getActiveProfiles()).contains("prod");
 
         http
@@ -75,16 +82,22 @@ public class SecurityConfig {
                         swaggerRegistry.permitAll();
                     }
 
-                    auth.requestMatchers("/api/auth/**").permitAll()
+                    // Async dispatches (streamed responses) were already authorized on the original request
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                            .requestMatchers("/api/auth/**").permitAll()
+                            // Liveness and readiness probes carry no token; details stay hidden from them
+                            .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                            .requestMatchers("/actuator/**").hasRole(ADMIN.name())
                             .requestMatchers(HttpMethod.GET, "/api/products/**").hasAnyRole(ADMIN.name(), USER.name())
                             .requestMatchers(HttpMethod.POST, "/api/products/**").hasRole(ADMIN.name())
                             .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole(ADMIN.name())
+                            .requestMatchers(HttpMethod.PATCH, "/api/products/**").hasRole(ADMIN.name())
                             .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole(ADMIN.name())
                             .anyRequest().authenticated();
                 })
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(traceIdFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling(e -> e
@@ -106,16 +119,25 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
+    /**
+     * BCrypt at the configured cost, with hashes stored as {bcrypt}... so a
+     * later change of algorithm can tell them apart. Hashes stored before the
+     * prefix was introduced are still accepted, and are replaced on login
+     * along with any hash of a lower cost.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${application.security.password.bcrypt-cost:10}") int bcryptCost) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptCost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -126,9 +148,9 @@ public class SecurityConfig {
                 "http://localhost:5174",
                 "http://127.0.0.1:5173",
                 "http://127.0.0.1:5174"));
-        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-Match", "If-None-Match"));
+        config.setExposedHeaders(List.of("Authorization", "ETag"));
         config.setAllowCredentials(false);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
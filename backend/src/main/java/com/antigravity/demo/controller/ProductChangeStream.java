@@ -0,0 +1,203 @@
+package com.antigravity.demo.controller;
+
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductsBulkChangedEvent;
+import com.antigravity.demo.service.RemoteProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed product changes to Server-Sent Events subscribers, this
+ * node's own and, as {@link RemoteProductChangedEvent}s, those of other nodes.
+ * <p>
+ * Subscriptions are async requests, so an idle subscriber holds a connection
+ * but no thread. Each event is serialized once and queued per subscriber in a
+ * bounded buffer, which a small sender pool drains only while it has events.
+ * When a buffer overflows, its pending events are dropped and replaced by a
+ * single {@value #RESYNC} event telling the client to reload the catalog.
+ * <p>
+ * Senders are platform threads: {@link SseEmitter#send} is synchronized, so a
+ * virtual thread blocked writing to a stalled client would pin its carrier. A
+ * stalled write holds one sender until the connector's write timeout fails it
+ * and drops the subscriber.
+ */
+@Component
+class ProductChangeStream {
+
+    static final String CHANGE = "change";
+    static final String RESYNC = "resync";
+
+    /**
+     * Payload of a change event.
+     *
+     * @param fields the fields that may have changed; empty for deletes
+     */
+    record Change(UUID id, ProductChangedEvent.Operation operation, List<String> fields) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ExecutorService senders;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-change-heartbeat").daemon().factory());
+    private final Set<DataWithMediaType> resyncEvent;
+    private final Set<DataWithMediaType> heartbeatEvent;
+    private final Counter resyncs;
+
+    @Value("${application.products.changes.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${application.products.changes.sender-threads:8}")
+    private int senderThreads = 8;
+
+    @Value("${application.products.changes.heartbeat-interval:30s}")
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+    @Value("${application.products.changes.timeout:1h}")
+    private Duration timeout = Duration.ofHours(1);
+
+    ProductChangeStream(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.resyncEvent = SseEmitter.event().name(RESYNC).data("{}", MediaType.APPLICATION_JSON).build();
+        this.heartbeatEvent = SseEmitter.event().comment("heartbeat").build();
+        Gauge.builder("products.changes.subscribers", subscribers, Set::size)
+                .description("Open product change streams")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("products.changes.resyncs")
+                .description("Change streams whose buffer overflowed and were told to reload")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        senders = Executors.newFixedThreadPool(senderThreads,
+                Thread.ofPlatform().name("product-change-sender-", 0).daemon().factory());
+        // Keeps proxies from closing idle streams and reveals clients that went away
+        heartbeats.scheduleWithFixedDelay(() -> broadcast(heartbeatEvent),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Flushes the response headers, so the client knows it is subscribed
+        subscriber.offer(SseEmitter.event().comment("subscribed").build());
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Change change = new Change(event.productId(), event.operation(), event.changedFields());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + change, e);
+        }
+        broadcast(SseEmitter.event().name(CHANGE).data(json, MediaType.APPLICATION_JSON).build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        broadcast(resyncEvent);
+    }
+
+    @EventListener
+    public void onRemoteProductChanged(RemoteProductChangedEvent event) {
+        if (event.change() == null) {
+            broadcast(resyncEvent);
+        } else {
+            onProductChanged(event.change());
+        }
+    }
+
+    private void broadcast(Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (!buffer.offer(event)) {
+                // Anything still buffered is stale once the client reloads
+                buffer.clear();
+                buffer.offer(resyncEvent);
+                resyncs.increment();
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the stream already completed
+                subscribers.remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event offered between the last poll and releasing the flag
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
@@ -2,8 +2,16 @@ package com.antigravity.demo.controller;
 
 import com.antigravity.demo.dto.ProductDTOs.*;
 import com.antigravity.demo.exception.ApiErrorResponse;
+import com.antigravity.demo.repository.ProductFilter;
+import com.antigravity.demo.repository.ProductSort;
+import com.antigravity.demo.service.ProductCatalogSnapshot;
 import com.antigravity.demo.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,9 +19,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,10 +42,19 @@ import java.util.UUID;
 @SecurityRequirement(name = "bearerAuth")
 public class ProductController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // Let clients keep representations but always revalidate them with the ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final ProductChangeStream changeStream;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper,
+            ProductChangeStream changeStream) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.changeStream = changeStream;
     }
 
     @Operation(summary = "Create product", description = "Adds a new product to the catalog. Requires ADMIN role.")
@@ -37,57 +65,270 @@ public class ProductController {
             @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
     })
     @PostMapping
+    public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductCreateRequest request) {
+        ProductResponse product = productService.createProduct(request);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ProductETags.of(product.version())).body(product);
+    }
+
+    @Operation(summary = "Bulk create products", description = "Adds up to a configurable number of products (default 5000) in one transaction, inserted in JDBC batches. Either all products are created or none. Requires ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Products created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, sanitization failure or too many products", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    @PostMapping("/bulk")
     @ResponseStatus(HttpStatus.CREATED)
-    public ProductResponse createProduct(@Valid @RequestBody ProductCreateRequest request) {
-        return productService.createProduct(request);
+    public ProductBulkCreateResponse createProducts(@Valid @RequestBody ProductBulkCreateRequest request) {
+        return productService.createProducts(request.products());
     }
 
-    @Operation(summary = "Get all products", description = "Retrieves a list of all products in the catalog. Requires USER or ADMIN role.")
+    @Operation(summary = "Import products from CSV", description = "Streams a CSV catalog (text/csv, UTF-8) into the products table through COPY. The header row names the columns: name, price and stock are required, description and id optional. Rows with an id update that product if it exists, other rows create new products. Invalid rows are skipped and reported by line number; valid rows are imported in one transaction. Requires ADMIN role.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+            @ApiResponse(responseCode = "200", description = "Import finished; see the error report for skipped rows"),
+            @ApiResponse(responseCode = "400", description = "Missing, unknown or duplicate CSV columns", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ProductImportResponse importProducts(InputStream csv) throws IOException {
+        return productService.importProducts(csv);
+    }
+
+    @Operation(summary = "Get all products", description = "Retrieves a list of all products in the catalog from a pre-serialized snapshot, gzip-encoded when the client accepts it. Send the returned ETag in If-None-Match to get 304 when nothing changed. Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved products", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the given ETag"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden")
     })
     @GetMapping
-    public List<ProductResponse> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ProductCatalogSnapshot snapshot = productService.getCatalogSnapshot();
+        // A matching If-None-Match is answered with 304 before the body is written
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(REVALIDATE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(snapshot.gzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.gzippedJson());
+        }
+        return response.eTag(snapshot.etag()).body(snapshot.json());
+    }
+
+    @Operation(summary = "Get products by IDs", description = "Resolves several products in one request and one database round trip. Items come back in request order, one per requested id, with found=false for ids that do not exist. The maximum number of ids is configurable (default 100). Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully resolved ids"),
+            @ApiResponse(responseCode = "400", description = "No ids, too many ids or a malformed id", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/batch")
+    public ProductBatchResponse getProductsByIds(@RequestParam List<UUID> ids) {
+        return productService.getProductsByIds(ids);
     }
 
-    @Operation(summary = "Get product by ID", description = "Retrieves details of a specific product. Requires USER or ADMIN role.")
+    @Operation(summary = "Get products page", description = "Retrieves one page of products using an opaque keyset cursor. Optionally restricted to a price range (inclusive), to products in stock, or to products created after an ISO-8601 instant, and sorted by newest (default), price_asc, price_desc, name_asc or name_desc. Pass the returned nextCursor with the same sort to fetch the following page. Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit, filter or sort", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/page")
+    public ProductPageResponse getProductPage(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) Instant createdAfter,
+            @RequestParam(required = false) String sort) {
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock, createdAfter);
+        return productService.getProductPage(cursor, limit, filter, ProductSort.fromParameter(sort));
+    }
+
+    @Operation(summary = "Search products", description = "Full-text search over name and description. All words must match; the last word also matches as a prefix unless followed by a space. Results are ranked with name matches first; very broad queries rank only their newest matches. Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved matches"),
+            @ApiResponse(responseCode = "400", description = "Missing search terms or invalid page/limit", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/search")
+    public ProductSearchResponse searchProducts(@RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer limit) {
+        return productService.searchProducts(q, page, limit);
+    }
+
+    @Operation(summary = "Get trending products", description = "Most viewed products by recent single-product reads, most viewed first. Views are estimated, decay over time and are counted per node, refreshed every few seconds. Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved trending products"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/trending")
+    public ProductTrendingResponse getTrendingProducts(@RequestParam(required = false) Integer limit) {
+        return productService.getTrendingProducts(limit);
+    }
+
+    @Operation(summary = "Stream product changes", description = "Server-Sent Events stream of committed product changes. Each \"change\" event carries the product id, the operation and the fields that may have changed; fetch the product to get the new values. A \"resync\" event means changes were missed (bulk writes, or a client too slow to keep up) and the catalog should be reloaded. Comments are sent periodically as heartbeats. Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream started"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges() {
+        return changeStream.subscribe();
+    }
+
+    @Operation(summary = "Export all products", description = "Streams the whole catalog as newline-delimited JSON, one product per line, newest first. Memory use is independent of catalog size. Requires USER or ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog stream started"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(ProductResponse.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // One document per line; the generator would otherwise separate root values with a space
+                generator.setRootValueSeparator(null);
+                productService.exportProducts(product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @Operation(summary = "Get product by ID", description = "Retrieves details of a specific product. The ETag reflects the product version and is honored in If-None-Match. Requires USER or ADMIN role.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "304", description = "Product unchanged since the given ETag"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @GetMapping("/{id}")
-    public ProductResponse getProduct(@PathVariable UUID id) {
-        return productService.getProduct(id);
+    public ResponseEntity<ProductResponse> getProduct(@PathVariable UUID id) {
+        ProductResponse product = productService.getProduct(id);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(ProductETags.of(product.version())).body(product);
     }
 
-    @Operation(summary = "Update product", description = "Updates an existing product's details. Requires ADMIN role.")
+    @Operation(summary = "Update product", description = "Updates an existing product's details. With If-Match, the update only applies if the product still has that ETag. Requires ADMIN role.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required"),
-            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @PutMapping("/{id}")
-    public ProductResponse updateProduct(@PathVariable UUID id, @Valid @RequestBody ProductUpdateRequest request) {
-        return productService.updateProduct(id, request);
+    public ResponseEntity<ProductResponse> updateProduct(@PathVariable UUID id,
+            @Valid @RequestBody ProductUpdateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductResponse product = productService.updateProduct(id, request, ProductETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ProductETags.of(product.version())).body(product);
     }
 
-    @Operation(summary = "Delete product", description = "Removes a product from the catalog. Requires ADMIN role.")
+    @Operation(summary = "Patch product", description = "Updates only the given fields; omitted or null fields are left unchanged and a blank description clears it. Only changed columns are written. A version in the body must match the current one, otherwise the patch is rejected with 409; If-Match works as for PUT. Requires ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product patched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or no field given", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required"),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Version in the body is stale, or product modified concurrently", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductResponse> patchProduct(@PathVariable UUID id,
+            @Valid @RequestBody ProductPatchRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductResponse product = productService.patchProduct(id, request, ProductETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ProductETags.of(product.version())).body(product);
+    }
+
+    @Operation(summary = "Decrement product stock", description = "Atomically takes the given quantity off the product's stock if at least that much is left, without reading the product first, so concurrent checkouts never oversell or lose updates. A successful decrement changes the product's ETag. Requires ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock decremented; the body carries the remaining stock"),
+            @ApiResponse(responseCode = "400", description = "Invalid quantity", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required"),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Insufficient stock; nothing was changed and the body carries the stock left")
+    })
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<ProductStockResponse> decrementStock(@PathVariable UUID id,
+            @Valid @RequestBody ProductStockDecrementRequest request) {
+        ProductStockResponse result = productService.decrementStock(id, request.quantity());
+        return ResponseEntity.status(result.applied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+
+    @Operation(summary = "Delete product", description = "Removes a product from the catalog. With If-Match, the delete only applies if the product still has that ETag. Requires ADMIN role.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Product deleted successfully"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required"),
-            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteProduct(@PathVariable UUID id) {
-        productService.deleteProduct(id);
+    public void deleteProduct(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.deleteProduct(id, ProductETags.expectedVersion(ifMatch));
+    }
+
+    /**
+     * Whether the Accept-Encoding header allows gzip. An explicit gzip entry
+     * decides on its own, whatever the wildcard says, so {@code *;q=0, gzip}
+     * is gzip and {@code gzip;q=0, *} is not.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double wildcard = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = Math.max(gzip, quality(parts));
+            } else if (name.equals("*")) {
+                wildcard = Math.max(wildcard, quality(parts));
+            }
+        }
+        return (gzip >= 0 ? gzip : wildcard) > 0;
+    }
+
+    /** The q-value of one Accept-Encoding entry; 1 when absent, 0 when malformed. */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
     }
 }
@@ -0,0 +1,45 @@
+package com.antigravity.demo.controller;
+
+import com.antigravity.demo.exception.PreconditionFailedException;
+import org.springframework.util.StringUtils;
+
+/**
+ * Strong entity tags for single products, derived from the row version.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+        // Utility class
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the version an If-Match header requires, or {@code null} when the
+     * request is unconditional. Only a single strong tag is supported; weak tags
+     * never match under the strong comparison If-Match uses.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match requires a strong entity tag");
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("If-Match must be a single quoted entity tag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            // Well-formed, but not one we ever issued
+            throw new PreconditionFailedException("If-Match does not match the current product version");
+        }
+    }
+}
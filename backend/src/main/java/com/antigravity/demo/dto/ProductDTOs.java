@@ -1,12 +1,15 @@
 package com.antigravity.demo.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public class ProductDTOs {
@@ -31,12 +34,103 @@ public class ProductDTOs {
                         @NotNull @PositiveOrZero Integer stock) {
         }
 
+        /**
+         * Partial update: null fields are left unchanged, and a blank description
+         * clears it. When set, {@code version} must be the product's current
+         * version or the update is rejected as a conflict.
+         */
+        public record ProductPatchRequest(
+                        @Size(max = 255) String name,
+
+                        @Size(max = 2000) String description,
+
+                        @Positive BigDecimal price,
+
+                        @PositiveOrZero Integer stock,
+
+                        Long version) {
+        }
+
+        public record ProductBulkCreateRequest(
+                        @NotEmpty List<@NotNull @Valid ProductCreateRequest> products) {
+        }
+
+        public record ProductBulkCreateResponse(
+                        int created,
+                        List<UUID> ids) {
+        }
+
         public record ProductResponse(
                         UUID id,
                         String name,
                         String description,
                         BigDecimal price,
                         Integer stock,
-                        Instant createdAt) {
+                        Instant createdAt,
+                        Long version) {
+        }
+
+        public record ProductPageResponse(
+                        List<ProductResponse> items,
+                        String nextCursor) {
+        }
+
+        public record ProductSearchResponse(
+                        List<ProductResponse> items,
+                        int page,
+                        boolean hasNext) {
+        }
+
+        public record ProductBatchResponse(
+                        List<ProductBatchItem> items) {
+        }
+
+        /**
+         * One entry per requested id, in request order; {@code found} is false
+         * and {@code product} null when no product has that id.
+         */
+        public record ProductBatchItem(
+                        UUID id,
+                        boolean found,
+                        ProductResponse product) {
+        }
+
+        public record ProductTrendingResponse(
+                        List<ProductTrendingItem> items) {
+        }
+
+        /**
+         * {@code views} is an estimate of recent views on the serving node,
+         * with older views counting progressively less.
+         */
+        public record ProductTrendingItem(
+                        ProductResponse product,
+                        long views) {
+        }
+
+        public record ProductImportResponse(
+                        long rowsRead,
+                        int imported,
+                        long rejected,
+                        List<ProductImportError> errors,
+                        boolean errorsTruncated,
+                        long copyMillis,
+                        long mergeMillis,
+                        long rowsPerSecond) {
+        }
+
+        public record ProductImportError(
+                        long line,
+                        String message) {
+        }
+
+        public record ProductStockDecrementRequest(
+                        @NotNull @Positive Integer quantity) {
+        }
+
+        public record ProductStockResponse(
+                        UUID id,
+                        boolean applied,
+                        int stock) {
         }
 }
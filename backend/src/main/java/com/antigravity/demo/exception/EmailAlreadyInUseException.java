@@ -0,0 +1,7 @@
+package com.antigravity.demo.exception;
+
+public class EmailAlreadyInUseException extends RuntimeException {
+    public EmailAlreadyInUseException(String message) {
+        super(message);
+    }
+}
@@ -3,13 +3,17 @@ package com.antigravity.demo.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.MDC;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.Instant;
 import java.util.List;
@@ -24,6 +28,37 @@ public class GlobalExceptionHandler {
                 return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request, null);
         }
 
+        @ExceptionHandler(PreconditionFailedException.class)
+        public ResponseEntity<ApiErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex,
+                        HttpServletRequest request) {
+                return buildResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request, null);
+        }
+
+        @ExceptionHandler(EmailAlreadyInUseException.class)
+        public ResponseEntity<ApiErrorResponse> handleEmailAlreadyInUseException(EmailAlreadyInUseException ex,
+                        HttpServletRequest request) {
+                return buildResponse(HttpStatus.CONFLICT, ex.getMessage(), request, null);
+        }
+
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ApiErrorResponse> handleOptimisticLockingFailureException(
+                        OptimisticLockingFailureException ex,
+                        HttpServletRequest request) {
+                return buildResponse(HttpStatus.CONFLICT, "Resource was modified concurrently", request, null);
+        }
+
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ApiErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex,
+                        HttpServletRequest request) {
+                ResponseEntity<ApiErrorResponse> response = buildResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                                ex.getMessage(), request, null);
+                // Retry-After takes whole seconds; round up so clients never retry too early
+                long retryAfterSeconds = (ex.getRetryAfter().toMillis() + 999) / 1000;
+                return ResponseEntity.status(response.getStatusCode())
+                                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                                .body(response.getBody());
+        }
+
         @ExceptionHandler(MethodArgumentNotValidException.class)
         public ResponseEntity<ApiErrorResponse> handleValidationException(MethodArgumentNotValidException ex,
                         HttpServletRequest request) {
@@ -55,6 +90,22 @@ public class GlobalExceptionHandler {
                 return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request, null);
         }
 
+        @ExceptionHandler(MissingServletRequestParameterException.class)
+        public ResponseEntity<ApiErrorResponse> handleMissingServletRequestParameterException(
+                        MissingServletRequestParameterException ex,
+                        HttpServletRequest request) {
+                return buildResponse(HttpStatus.BAD_REQUEST, "Missing required parameter: " + ex.getParameterName(),
+                                request, null);
+        }
+
+        @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+        public ResponseEntity<ApiErrorResponse> handleMethodArgumentTypeMismatchException(
+                        MethodArgumentTypeMismatchException ex,
+                        HttpServletRequest request) {
+                return buildResponse(HttpStatus.BAD_REQUEST, "Invalid value for parameter: " + ex.getName(),
+                                request, null);
+        }
+
         @ExceptionHandler(AccessDeniedException.class)
         public ResponseEntity<ApiErrorResponse> handleAccessDeniedException(AccessDeniedException ex,
                         HttpServletRequest request) {
@@ -0,0 +1,18 @@
+package com.antigravity.demo.exception;
+
+import java.time.Duration;
+
+/** Thrown when the server is too busy to take the request on; the client may retry after the given delay. */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
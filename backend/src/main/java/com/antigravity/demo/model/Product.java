@@ -1,21 +1,35 @@
 package com.antigravity.demo.model;
 
+import com.antigravity.demo.config.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "products")
-public class Product {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.PRODUCTS_REGION)
+// Updates write only the changed columns, so a price-only edit leaves name and description alone
+@DynamicUpdate
+public class Product implements Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -42,6 +56,16 @@ public class Product {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // The id is assigned by the application, so Spring Data cannot tell new
+    // products from detached ones by it; without this, save() would merge and
+    // SELECT before every INSERT
+    @Transient
+    private boolean isNew = true;
+
     public Product() {
     }
 
@@ -54,6 +78,7 @@ public class Product {
         this.createdAt = createdAt;
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -101,4 +126,23 @@ public class Product {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -1,18 +1,24 @@
 package com.antigravity.demo.model;
 
+import com.antigravity.demo.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS_REGION)
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuidV7
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    // Unique regardless of case, through the index on lower(email)
+    @Column(nullable = false)
     private String email;
 
     @Column(name = "password_hash", nullable = false)
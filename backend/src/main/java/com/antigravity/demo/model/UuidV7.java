@@ -0,0 +1,62 @@
+package com.antigravity.demo.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered version 7 UUIDs (RFC 9562). The top 48 bits are the Unix time
+ * in milliseconds, so new keys land at the right edge of a B-tree index
+ * instead of at random pages, keeping inserts append-like and recent rows
+ * close together.
+ * <p>
+ * The 12-bit rand_a field is used as a counter (RFC 9562, section 6.2,
+ * method 1): ids from this JVM are strictly increasing, even within one
+ * millisecond or if the clock steps back. A counter overflow borrows the next
+ * millisecond. The remaining 62 bits come from {@link ThreadLocalRandom}, so
+ * generation never contends on a shared SecureRandom. The ids are unique, not
+ * secret: they reveal creation time and must not be used as tokens.
+ */
+public final class UuidV7 {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 7L << 12;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RAND_B_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    // Timestamp and counter together, as they appear in the top 60 bits of the id
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+        // Utility class
+    }
+
+    public static UUID generate() {
+        long timeAndCounter = nextTimeAndCounter(System.currentTimeMillis());
+        long mostSigBits = (timeAndCounter >>> COUNTER_BITS) << 16 | VERSION
+                | (timeAndCounter & ((1 << COUNTER_BITS) - 1));
+        long leastSigBits = VARIANT | (ThreadLocalRandom.current().nextLong() & RAND_B_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * The creation time encoded in a version 7 UUID, in epoch milliseconds.
+     */
+    public static long timestampMillis(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static long nextTimeAndCounter(long nowMillis) {
+        long candidate = nowMillis << COUNTER_BITS;
+        while (true) {
+            long last = LAST.get();
+            long next = Math.max(candidate, last + 1);
+            if (LAST.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
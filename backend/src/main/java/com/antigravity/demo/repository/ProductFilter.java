@@ -0,0 +1,19 @@
+package com.antigravity.demo.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Optional restrictions for the paginated product listing; null bounds are not
+ * applied. Price bounds are inclusive, {@code createdAfter} is exclusive.
+ */
+public record ProductFilter(BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly, Instant createdAfter) {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, false, null);
+
+    public ProductFilter {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+    }
+}
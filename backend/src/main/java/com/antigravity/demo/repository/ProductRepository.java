@@ -2,7 +2,12 @@ package com.antigravity.demo.repository;
 
 import com.antigravity.demo.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+/**
+ * Entity access for the write paths. Read paths use the projections declared
+ * in {@link ProductRepositoryCustom}, which never hydrate managed entities.
+ */
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductRepositoryCustom {
 }
@@ -0,0 +1,97 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductStockResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Product queries that need direct control over query execution and cannot be
+ * expressed as derived or annotated Spring Data queries. All of them project
+ * rows straight into {@link ProductResponse} with a constructor expression, so
+ * no entity is hydrated, registered in the persistence context or dirty
+ * checked. Bulk writes that need the same control live here too.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Served from the query cache until the next write to products.
+     */
+    Optional<ProductResponse> findResponseById(UUID id);
+
+    /**
+     * Products with the given ids, in no particular order, fetched with a single
+     * {@code id = ANY(?)} query so the statement is the same whatever the number
+     * of ids. Ids without a product are simply absent from the result.
+     */
+    List<ProductResponse> findResponsesByIds(Collection<UUID> ids);
+
+    /**
+     * One page of the catalog in the given order, restricted by the filter and,
+     * when {@code afterId} is set, starting strictly after the ({@code afterKey},
+     * {@code afterId}) position. Filters and sort compile into a single query
+     * whose ORDER BY matches one of the (sort key, id) indexes, full or partial
+     * on in-stock rows, so Postgres seeks into the index instead of sorting and
+     * deep pages cost the same as the first one.
+     *
+     * @param afterKey value of {@link ProductSort#keyOf} for the last row of the previous page
+     */
+    List<ProductResponse> findPage(ProductFilter filter, ProductSort sort, Comparable<?> afterKey, UUID afterId,
+            int limit);
+
+    /**
+     * Full-text search over name and description, best match first among the
+     * {@code maxCandidates} newest matching rows. Older matches of very broad
+     * queries are never returned, which bounds their cost; pages beyond the
+     * window come back empty. Must run inside a transaction.
+     *
+     * @param tsQuery a tsquery in the 'simple' configuration
+     */
+    List<ProductResponse> search(String tsQuery, int offset, int limit, int maxCandidates);
+
+    /**
+     * Streams every product, newest first, through a server-side cursor, so
+     * memory use does not depend on catalog size. Must run inside a transaction.
+     */
+    void forEachProduct(int fetchSize, Consumer<ProductResponse> action);
+
+    /**
+     * Takes {@code quantity} units off the product's stock with a single
+     * conditional UPDATE, only if that much is in stock, and bumps its version.
+     * Insufficient stock is reported as a result that is not applied, carrying
+     * the stock left; empty means no such product. Must run inside a
+     * transaction; the product's cache entries are evicted when it commits.
+     */
+    Optional<ProductStockResponse> decrementStock(UUID id, int quantity);
+
+    /**
+     * Overwrites the product's fields and bumps its version with a single
+     * UPDATE ... RETURNING, only if the version is {@code expectedVersion} when
+     * that is set. Empty means no such product. Must run inside a transaction;
+     * the product's cache entries are evicted when it commits.
+     */
+    Optional<ProductWriteResult> updateReturning(UUID id, ProductUpdateRequest values, Long expectedVersion);
+
+    /**
+     * Deletes the product with a single DELETE, only if the version is
+     * {@code expectedVersion} when that is set. Empty means no such product.
+     * Must run inside a transaction; the product's cache entries are evicted
+     * when it commits.
+     */
+    Optional<ProductWriteResult> deleteReturning(UUID id, Long expectedVersion);
+
+    /**
+     * Inserts new products in JDBC batches, flushing and clearing the
+     * persistence context every {@code flushSize} products so memory stays
+     * bounded. The inserted products are not put in the second-level cache.
+     * Must run inside a transaction, and leaves the session ignoring the
+     * second-level cache for the rest of it.
+     */
+    void persistAll(List<Product> products, int flushSize);
+}
@@ -0,0 +1,342 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductStockResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    // Queries run through the EntityManager directly: going through Spring Data's
+    // @Query execution roughly doubled per-call allocation in ProductReadPathBenchmarkIT.
+    static final String SELECT_RESPONSE = "select new com.antigravity.demo.dto.ProductDTOs$ProductResponse("
+            + "p.id, p.name, p.description, p.price, p.stock, p.createdAt, p.version) from Product p ";
+
+    private static final String NEWEST_FIRST = " order by p.createdAt desc, p.id desc";
+
+    // A query with at most :maxCandidates matches has them all ranked: the
+    // first scan stops one row past that, so it doubles as the test. Broader
+    // queries rank only their newest :maxCandidates matches, which a walk down
+    // the created_at index finds quickly when matches are that common. Postgres
+    // runs just one branch, and either way the candidates are the same on every
+    // call, so pages neither repeat nor skip rows.
+    private static final String SEARCH_SQL = """
+            WITH first_matches AS (
+                SELECT p.id, p.name, p.description, p.price, p.stock, p.created_at, p.version,
+                       ts_rank(p.search_vector, query) AS rank
+                FROM products p, to_tsquery('simple', :query) AS query
+                WHERE p.search_vector @@ query
+                LIMIT :maxCandidates + 1
+            ),
+            candidates AS (
+                SELECT * FROM first_matches
+                WHERE (SELECT count(*) FROM first_matches) <= :maxCandidates
+                UNION ALL
+                (SELECT p.id, p.name, p.description, p.price, p.stock, p.created_at, p.version,
+                        ts_rank(p.search_vector, query) AS rank
+                 FROM products p, to_tsquery('simple', :query) AS query
+                 WHERE p.search_vector @@ query AND (SELECT count(*) FROM first_matches) > :maxCandidates
+                 ORDER BY p.created_at DESC, p.id DESC
+                 LIMIT :maxCandidates)
+            )
+            SELECT id, name, description, price, stock, created_at, version
+            FROM candidates
+            ORDER BY rank DESC, created_at DESC, id DESC
+            OFFSET :offset LIMIT :limit
+            """;
+
+    // One array parameter instead of an IN list keeps a single server-prepared statement
+    private static final String BY_IDS_SQL = """
+            SELECT id, name, description, price, stock, created_at, version
+            FROM products
+            WHERE id = ANY(:ids)
+            """;
+
+    // The conditional UPDATE is the whole reservation: the row lock it takes and
+    // the re-check of stock >= :quantity against the latest committed row make
+    // concurrent decrements exact without a read-modify-write. The second branch
+    // only runs when nothing was updated, to tell "too little stock" from "no
+    // such product" in the same round trip.
+    private static final String DECREMENT_STOCK_SQL = """
+            WITH updated AS (
+                UPDATE products
+                SET stock = stock - :quantity, version = version + 1
+                WHERE id = :id AND stock >= :quantity
+                RETURNING stock
+            )
+            SELECT true AS applied, stock FROM updated
+            UNION ALL
+            SELECT false, stock FROM products
+            WHERE id = :id AND NOT EXISTS (SELECT 1 FROM updated)
+            """;
+
+    // Like the stock decrement: the write and, only when it matched nothing, a
+    // read of the current row in one round trip, so "not found", "stale
+    // version" and success are told apart without a prior SELECT
+    private static final String UPDATE_SQL = """
+            WITH written AS (
+                UPDATE products
+                SET name = :name, description = :description, price = :price, stock = :stock,
+                    version = version + 1
+                WHERE id = :id%s
+                RETURNING id, name, description, price, stock, created_at, version
+            )
+            SELECT id, name, description, price, stock, created_at, version, true AS applied FROM written
+            UNION ALL
+            SELECT id, name, description, price, stock, created_at, version, false FROM products
+            WHERE id = :id AND NOT EXISTS (SELECT 1 FROM written)
+            """;
+
+    private static final String DELETE_SQL = """
+            WITH written AS (
+                DELETE FROM products
+                WHERE id = :id%s
+                RETURNING id, name, description, price, stock, created_at, version
+            )
+            SELECT id, name, description, price, stock, created_at, version, true AS applied FROM written
+            UNION ALL
+            SELECT id, name, description, price, stock, created_at, version, false FROM products
+            WHERE id = :id AND NOT EXISTS (SELECT 1 FROM written)
+            """;
+
+    private static final String VERSION_CONDITION = " AND version = :expectedVersion";
+
+    private static final String[] PRODUCT_SPACES = {"products"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<ProductResponse> findResponseById(UUID id) {
+        // getResultList, not getResultStream: streamed results bypass the query cache
+        List<ProductResponse> rows = responses(SELECT_RESPONSE + "where p.id = :id")
+                .setParameter("id", id)
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .getResultList();
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<ProductResponse> findPage(ProductFilter filter, ProductSort sort, Comparable<?> afterKey, UUID afterId,
+            int limit) {
+        // Built as a JPQL string rather than with Criteria: Hibernate caches the
+        // translation per distinct string, and filters x sorts x cursor give at most 160
+        String key = "p." + sort.attribute();
+        StringJoiner where = new StringJoiner(" and ", "where ", " ").setEmptyValue("");
+        if (filter.minPrice() != null) {
+            where.add("p.price >= :minPrice");
+        }
+        if (filter.maxPrice() != null) {
+            where.add("p.price <= :maxPrice");
+        }
+        if (filter.inStockOnly()) {
+            // A literal, not a parameter, or the planner cannot match the partial indexes
+            where.add("p.stock > 0");
+        }
+        if (filter.createdAfter() != null) {
+            where.add("p.createdAt > :createdAfter");
+        }
+        if (afterId != null) {
+            where.add("(" + key + ", p.id) " + (sort.descending() ? "<" : ">") + " (:afterKey, :afterId)");
+        }
+        String direction = sort.descending() ? " desc" : " asc";
+
+        TypedQuery<ProductResponse> query = responses(SELECT_RESPONSE + where
+                + "order by " + key + direction + ", p.id" + direction);
+        if (filter.minPrice() != null) {
+            query.setParameter("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            query.setParameter("maxPrice", filter.maxPrice());
+        }
+        if (filter.createdAfter() != null) {
+            query.setParameter("createdAfter", filter.createdAfter());
+        }
+        if (afterId != null) {
+            query.setParameter("afterKey", afterKey).setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<ProductResponse> findResponsesByIds(Collection<UUID> ids) {
+        return nativeResponses(BY_IDS_SQL)
+                .setParameter("ids", ids.toArray(UUID[]::new))
+                .getResultList()
+                .stream()
+                .map(ProductRepositoryImpl::toResponse)
+                .toList();
+    }
+
+    @Override
+    public List<ProductResponse> search(String tsQuery, int offset, int limit, int maxCandidates) {
+        // Once the driver server-prepares the statement, Postgres may switch to a generic
+        // plan that cannot see the tsquery and scans the GIN index even for terms that
+        // match most rows; that costs ~30 ms on a million products instead of ~5 ms.
+        entityManager.createNativeQuery("SELECT set_config('plan_cache_mode', 'force_custom_plan', true)")
+                .getSingleResult();
+        return nativeResponses(SEARCH_SQL)
+                .setParameter("query", tsQuery)
+                .setParameter("maxCandidates", maxCandidates)
+                .setParameter("offset", offset)
+                .setParameter("limit", limit)
+                .getResultList()
+                .stream()
+                .map(ProductRepositoryImpl::toResponse)
+                .toList();
+    }
+
+    @Override
+    public void forEachProduct(int fetchSize, Consumer<ProductResponse> action) {
+        // The PG driver only uses a portal (cursor) when autocommit is off and a fetch
+        // size is set; otherwise it would materialize the whole result set.
+        try (Stream<ProductResponse> products = responses(SELECT_RESPONSE + NEWEST_FIRST)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            products.forEach(action);
+        }
+    }
+
+    @Override
+    public Optional<ProductStockResponse> decrementStock(UUID id, int quantity) {
+        invalidateOnCompletion(id);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(DECREMENT_STOCK_SQL)
+                .unwrap(NativeQuery.class)
+                .addScalar("applied", Boolean.class)
+                .addScalar("stock", Integer.class)
+                .setParameter("id", id)
+                .setParameter("quantity", quantity)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ProductStockResponse(id, (Boolean) rows.get(0)[0], (Integer) rows.get(0)[1]));
+    }
+
+    @Override
+    public Optional<ProductWriteResult> updateReturning(UUID id, ProductUpdateRequest values, Long expectedVersion) {
+        NativeQuery<Object[]> query = conditionalWrite(UPDATE_SQL, id, expectedVersion)
+                .setParameter("name", values.name())
+                .setParameter("description", values.description())
+                .setParameter("price", values.price())
+                .setParameter("stock", values.stock());
+        return writeResult(id, query);
+    }
+
+    @Override
+    public Optional<ProductWriteResult> deleteReturning(UUID id, Long expectedVersion) {
+        return writeResult(id, conditionalWrite(DELETE_SQL, id, expectedVersion));
+    }
+
+    @Override
+    public void persistAll(List<Product> products, int flushSize) {
+        // Bulk-created products are rarely read right away; caching them on commit
+        // would only push hot entries out of the region. The mode must stay set
+        // until then, because that is when READ_WRITE regions are populated.
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (int i = 0; i < products.size(); i++) {
+            entityManager.persist(products.get(i));
+            if ((i + 1) % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private NativeQuery<Object[]> conditionalWrite(String sql, UUID id, Long expectedVersion) {
+        NativeQuery<Object[]> query = nativeResponses(sql.formatted(expectedVersion != null ? VERSION_CONDITION : ""))
+                .addScalar("applied", Boolean.class)
+                .setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        return query;
+    }
+
+    private Optional<ProductWriteResult> writeResult(UUID id, NativeQuery<Object[]> query) {
+        invalidateOnCompletion(id);
+        List<Object[]> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        return Optional.of(new ProductWriteResult((Boolean) row[7], toResponse(row)));
+    }
+
+    /**
+     * The RETURNING writes here run as queries, so Hibernate does not know they
+     * write and would leave its caches alone. This does for one product what it
+     * does around its own updates: the cached entity is soft-locked and the
+     * products query space pre-invalidated before the write, and both are
+     * released when the transaction completes. A reader that loaded the old row
+     * meanwhile cannot put it back, in the entity region or the query cache,
+     * and cached queries over other tables are untouched.
+     */
+    private void invalidateOnCompletion(UUID id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Product.class);
+        EntityDataAccess entityCache = persister.getCacheAccessStrategy();
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+
+        Object key = entityCache.generateCacheKey(id, persister, factory, session.getTenantIdentifier());
+        SoftLock lock = entityCache.lockItem(session, key, null);
+        timestamps.preInvalidate(PRODUCT_SPACES, session);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+            entityCache.unlockItem(completed, key, lock);
+            timestamps.invalidate(PRODUCT_SPACES, completed);
+        });
+    }
+
+    private TypedQuery<ProductResponse> responses(String jpql) {
+        return entityManager.createQuery(jpql, ProductResponse.class);
+    }
+
+    /**
+     * Native query returning the ProductResponse columns, in order, with explicit types.
+     */
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Object[]> nativeResponses(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("name", String.class)
+                .addScalar("description", String.class)
+                .addScalar("price", BigDecimal.class)
+                .addScalar("stock", Integer.class)
+                .addScalar("created_at", Instant.class)
+                .addScalar("version", Long.class);
+    }
+
+    private static ProductResponse toResponse(Object[] row) {
+        return new ProductResponse((UUID) row[0], (String) row[1], (String) row[2],
+                (BigDecimal) row[3], (Integer) row[4], (Instant) row[5], (Long) row[6]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Orderings offered by the paginated product listing. Every ordering ends with
+ * the id in the same direction, which makes it total and lets the listing seek
+ * past the last row of a page with a keyset predicate.
+ */
+public enum ProductSort {
+
+    NEWEST("createdAt", true),
+    PRICE_ASC("price", false),
+    PRICE_DESC("price", true),
+    NAME_ASC("name", false),
+    NAME_DESC("name", true);
+
+    private static final String ALLOWED = Arrays.stream(values())
+            .map(sort -> sort.name().toLowerCase(Locale.ROOT))
+            .collect(Collectors.joining(", "));
+
+    private final String attribute;
+    private final boolean descending;
+
+    ProductSort(String attribute, boolean descending) {
+        this.attribute = attribute;
+        this.descending = descending;
+    }
+
+    /**
+     * Parses the {@code sort} request parameter; blank means {@link #NEWEST}.
+     * Throws IllegalArgumentException for unknown values.
+     */
+    public static ProductSort fromParameter(String value) {
+        if (!StringUtils.hasText(value)) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("sort must be one of: " + ALLOWED);
+        }
+    }
+
+    /**
+     * Name of the Product attribute this ordering sorts on.
+     */
+    public String attribute() {
+        return attribute;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+
+    /**
+     * Value of the sort key of the given product, as the keyset predicate expects it.
+     */
+    public Comparable<?> keyOf(ProductResponse product) {
+        return switch (attribute) {
+            case "createdAt" -> product.createdAt();
+            case "price" -> product.price();
+            default -> product.name();
+        };
+    }
+}
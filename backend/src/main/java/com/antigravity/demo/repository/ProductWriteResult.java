@@ -0,0 +1,11 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+
+/**
+ * Outcome of a single-statement write to an existing product. When
+ * {@code applied}, {@code product} is the row as written (or as deleted);
+ * otherwise the version condition did not hold and it is the current row.
+ */
+public record ProductWriteResult(boolean applied, ProductResponse product) {
+}
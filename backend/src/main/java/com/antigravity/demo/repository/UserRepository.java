@@ -1,12 +1,42 @@
 package com.antigravity.demo.repository;
 
 import com.antigravity.demo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByEmail(String email);
+    // Case-insensitive, matching the unique index on lower(email). Not query-cached: only product
+    // writes are broadcast to other nodes, so a cached result could miss a registration or rehash
+    // made on another node for the whole TTL, and login pays for a password hash anyway
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
 
-    boolean existsByEmail(String email);
+    /**
+     * Inserts the user unless the email, in any case, is taken, in one
+     * statement that cannot race with a concurrent registration.
+     *
+     * @return 1 if the user was inserted, 0 if the email was taken
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO users (id, email, password_hash, role, created_at)
+            VALUES (:id, :email, :passwordHash, :role, :createdAt)
+            ON CONFLICT ((lower(email))) DO NOTHING
+            """, nativeQuery = true)
+    // Names the table written, so Hibernate invalidates only what depends on users, not every cache region
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "users"))
+    int insertIfEmailAvailable(@Param("id") UUID id, @Param("email") String email,
+            @Param("passwordHash") String passwordHash, @Param("role") String role,
+            @Param("createdAt") Instant createdAt);
 }
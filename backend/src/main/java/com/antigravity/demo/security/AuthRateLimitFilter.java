@@ -0,0 +1,202 @@
+package com.antigravity.demo.security;
+
+import com.antigravity.demo.exception.ApiErrorResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link AuthRateLimiter} limits to the unauthenticated
+ * /api/auth endpoints, per client IP and per account, before the request
+ * reaches security or the controller, so a refused attempt costs no user
+ * lookup and no password hash. Refused requests get 429 with Retry-After.
+ * <p>
+ * Each attempt takes one of its account's attempts up front, so concurrent
+ * requests cannot get more attempts through than the account allows. Once
+ * answered, the attempt is given back unless it failed with 401, so the
+ * owner's successful sign-ins never use up the account's allowance.
+ * <p>
+ * The account is the email in the JSON body, which is read here once and
+ * replayed to the controller. Auth bodies are tiny; anything larger than
+ * {@code MAX_BODY_BYTES} is refused with 413 rather than buffered, which
+ * also stops padding from hiding the email. The client IP is the remote
+ * address, so behind a proxy set {@code server.forward-headers-strategy}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/auth/";
+    private static final int MAX_BODY_BYTES = 4096;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final AuthRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public AuthRateLimitFilter(AuthRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !request.getRequestURI().startsWith(AUTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long wait = rateLimiter.acquireForIp(request.getRemoteAddr());
+        if (wait > 0) {
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "Too many authentication attempts", wait);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            reject(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large", 0);
+            return;
+        }
+        String account = readEmail(body);
+        if (account != null) {
+            wait = rateLimiter.acquireForAccount(account);
+            if (wait > 0) {
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "Too many authentication attempts", wait);
+                return;
+            }
+        }
+
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+        } finally {
+            if (account != null && response.getStatus() != HttpStatus.UNAUTHORIZED.value()) {
+                rateLimiter.refundAccount(account);
+            }
+        }
+    }
+
+    /** Returns the top-level email field, normalized, or null if the body has none. */
+    private static String readEmail(byte[] body) {
+        try (JsonParser json = JSON.createParser(body)) {
+            if (json.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String name = json.currentName();
+                if (json.nextToken() == JsonToken.VALUE_STRING && "email".equals(name)) {
+                    return json.getText().trim().toLowerCase(Locale.ROOT);
+                }
+                json.skipChildren();
+            }
+        } catch (IOException e) {
+            // Malformed JSON; the controller rejects it with 400
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+            String message, long waitNanos) throws IOException {
+        ApiErrorResponse apiError = new ApiErrorResponse(
+                Instant.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                message,
+                request.getRequestURI(),
+                MDC.get("traceId"),
+                null);
+
+        response.setStatus(status.value());
+        if (waitNanos > 0) {
+            // Whole seconds, rounded up so that a client honouring it is not refused again
+            long seconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(objectMapper.writeValueAsString(apiError));
+    }
+
+    /** Serves the already read body to everything downstream. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public int read() throws IOException {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // Everything is already in memory, so it is all available and read at once
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.antigravity.demo.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * The per-IP and per-account limits applied to /api/auth by
+ * {@link AuthRateLimitFilter}, configured under
+ * {@code application.security.rate-limit}. Every attempt counts against its
+ * IP, but only failed logins count against the account, so that the owner's
+ * own sign-ins never lock it. Rejections are counted in
+ * {@code auth.rate-limit.rejected}, tagged with the limit that refused.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+    private final TokenBucketLimiter perIp;
+    private final TokenBucketLimiter perAccount;
+    private final Counter ipRejections;
+    private final Counter accountRejections;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+            @Value("${application.security.rate-limit.enabled:true}") boolean enabled,
+            @Value("${application.security.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys,
+            @Value("${application.security.rate-limit.per-ip.capacity:60}") int ipCapacity,
+            @Value("${application.security.rate-limit.per-ip.refill-period:1m}") Duration ipRefillPeriod,
+            @Value("${application.security.rate-limit.per-account.capacity:10}") int accountCapacity,
+            @Value("${application.security.rate-limit.per-account.refill-period:1m}") Duration accountRefillPeriod) {
+        this.enabled = enabled;
+        this.perIp = new TokenBucketLimiter(ipCapacity, ipRefillPeriod, maxTrackedKeys, System::nanoTime);
+        this.perAccount = new TokenBucketLimiter(accountCapacity, accountRefillPeriod, maxTrackedKeys,
+                System::nanoTime);
+        this.ipRejections = rejections(meterRegistry, "ip");
+        this.accountRejections = rejections(meterRegistry, "account");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("auth.rate-limit.rejected")
+                .description("Auth requests refused by the rate limiter")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Returns 0 if the address may make another attempt, otherwise the nanoseconds until it may. */
+    public long acquireForIp(String address) {
+        long wait = perIp.tryAcquire(address);
+        if (wait > 0) {
+            ipRejections.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Takes one of the account's attempts. Returns 0 if it may be tried again,
+     * otherwise the nanoseconds until it may. Attempts that do not fail are
+     * given back with {@link #refundAccount}.
+     */
+    public long acquireForAccount(String email) {
+        long wait = perAccount.tryAcquire(email);
+        if (wait > 0) {
+            accountRejections.increment();
+        }
+        return wait;
+    }
+
+    /** Gives back an attempt taken by {@link #acquireForAccount} that did not fail. */
+    public void refundAccount(String email) {
+        perAccount.refund(email);
+    }
+}
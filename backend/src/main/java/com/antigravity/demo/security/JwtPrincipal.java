@@ -0,0 +1,12 @@
+package com.antigravity.demo.security;
+
+import java.time.Instant;
+
+/**
+ * The claims of an access token whose signature and expiry have been checked.
+ *
+ * @param role the role claim, or null if the token has none
+ * @param expiresAt when the token expires; tokens without an expiry are rejected
+ */
+public record JwtPrincipal(String subject, String role, Instant expiresAt) {
+}
@@ -1,36 +1,85 @@
 package com.antigravity.demo.security;
 
 import com.antigravity.demo.model.Role;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.MissingClaimException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret}")
-    private String secretKey;
+    static final String ROLE_CLAIM = "role";
 
-    @Value("${application.security.jwt.expiration-minutes}")
-    private long jwtExpiration;
+    // The header generateToken writes, {"alg":"HS256"}, followed by the payload separator
+    private static final String COMPACT_HS256_PREFIX = "eyJhbGciOiJIUzI1NiJ9.";
+    private static final int HS256_SIGNATURE_LENGTH = 43;
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String MISSING_EXPIRATION = "JWT has no expiration";
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final boolean fastPath;
+    // Mac instances are not thread-safe and costly to set up; request threads are pooled
+    private final ThreadLocal<Hs256Verifier> verifiers = ThreadLocal.withInitial(Hs256Verifier::new);
+    private final ThreadLocal<MessageDigest> tokenDigests = ThreadLocal.withInitial(JwtService::sha256);
+    // Null when disabled; keyed by a digest so that raw tokens are not kept on the heap
+    private final Cache<ByteBuffer, JwtPrincipal> verifiedTokens;
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public JwtService(@Value("${application.security.jwt.secret}") String secretKey,
+            @Value("${application.security.jwt.expiration-minutes}") long jwtExpiration,
+            @Value("${application.security.jwt.fast-path:true}") boolean fastPath,
+            @Value("${application.security.jwt.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.fastPath = fastPath;
+        if (cacheMaxSize > 0) {
+            this.verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfter(new UntilTokenExpires())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verified-tokens");
+        } else {
+            this.verifiedTokens = null;
+        }
     }
 
     public String generateToken(String username, Role role) {
@@ -38,43 +87,197 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, String username, Role role) {
-        extraClaims.put("role", role.name());
+        extraClaims.put(ROLE_CLAIM, role.name());
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration * 60 * 1000))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username)) && !isTokenExpired(token);
+    /**
+     * Checks the token's signature and expiry and returns its claims.
+     * <p>
+     * A token verified before is answered from a bounded cache, at the cost
+     * of one SHA-256 and one lookup. Entries expire with the token itself.
+     * Otherwise the token is parsed once. Tokens shaped like the ones {@link #generateToken} issues are verified
+     * directly: one HMAC over the signed part and one streaming read of the
+     * payload. Anything else, or anything the direct check does not cover
+     * (such as a not-before claim), goes through the full JJWT parser.
+     *
+     * @throws JwtException if the token is malformed, not signed with our key,
+     *                      expired or without an expiry
+     */
+    public JwtPrincipal verify(String token) {
+        if (verifiedTokens == null) {
+            return verifyUncached(token);
+        }
+        ByteBuffer digest = ByteBuffer.wrap(tokenDigests.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        JwtPrincipal principal = verifiedTokens.getIfPresent(digest);
+        if (principal == null) {
+            principal = verifyUncached(token);
+            verifiedTokens.put(digest, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Forgets every verified token, so that each is checked in full on its
+     * next use. Call this when tokens are revoked or the signing key changes.
+     */
+    public void flushVerifiedTokens() {
+        if (verifiedTokens != null) {
+            verifiedTokens.invalidateAll();
+        }
     }
 
-    public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+    private JwtPrincipal verifyUncached(String token) {
+        if (fastPath && token.startsWith(COMPACT_HS256_PREFIX)) {
+            JwtPrincipal principal = verifiers.get().verify(token);
+            if (principal != null) {
+                return principal;
+            }
+        }
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            // A token without an expiry would be valid forever
+            throw new MissingClaimException(jws.getHeader(), claims, MISSING_EXPIRATION);
+        }
+        return new JwtPrincipal(claims.getSubject(), claims.get(ROLE_CLAIM, String.class), expiration.toInstant());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static final class UntilTokenExpires implements Expiry<ByteBuffer, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, JwtPrincipal principal, long currentTime) {
+            long millisLeft = principal.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, JwtPrincipal principal, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, JwtPrincipal principal, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private final class Hs256Verifier {
+
+        private final Mac mac;
+        private final byte[] digest = new byte[32];
+        private final byte[] expectedSignature = new byte[HS256_SIGNATURE_LENGTH];
+
+        private Hs256Verifier() {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(signInKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        }
+
+        /** Returns the verified claims, or null if the token needs the full parser. */
+        JwtPrincipal verify(String token) {
+            int payloadStart = COMPACT_HS256_PREFIX.length();
+            int signatureStart = token.length() - HS256_SIGNATURE_LENGTH;
+            if (signatureStart <= payloadStart || token.charAt(signatureStart - 1) != '.'
+                    || token.indexOf('.', payloadStart) != signatureStart - 1) {
+                return null;
+            }
+
+            byte[] ascii = token.getBytes(StandardCharsets.ISO_8859_1);
+            try {
+                mac.update(ascii, 0, signatureStart - 1);
+                mac.doFinal(digest, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            Base64.getUrlEncoder().withoutPadding().encode(digest, expectedSignature);
+            // Constant time, so response timing reveals nothing about the expected signature
+            int difference = 0;
+            for (int i = 0; i < HS256_SIGNATURE_LENGTH; i++) {
+                difference |= expectedSignature[i] ^ ascii[signatureStart + i];
+            }
+            if (difference != 0) {
+                throw new SignatureException("JWT signature does not match locally computed signature");
+            }
+
+            byte[] payload;
+            try {
+                payload = Base64.getUrlDecoder().decode(Arrays.copyOfRange(ascii, payloadStart, signatureStart - 1));
+            } catch (IllegalArgumentException e) {
+                throw new MalformedJwtException("JWT payload is not valid Base64URL", e);
+            }
+            return readClaims(payload);
+        }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static JwtPrincipal readClaims(byte[] payload) {
+        String subject = null;
+        String role = null;
+        Long expiresAtSeconds = null;
+        try (JsonParser json = JSON.createParser(payload)) {
+            if (json.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String name = json.currentName();
+                JsonToken value = json.nextToken();
+                switch (name) {
+                    case Claims.SUBJECT -> {
+                        if (value != JsonToken.VALUE_STRING) {
+                            return null;
+                        }
+                        subject = json.getText();
+                    }
+                    case ROLE_CLAIM -> {
+                        if (value != JsonToken.VALUE_STRING) {
+                            return null;
+                        }
+                        role = json.getText();
+                    }
+                    case Claims.EXPIRATION -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT) {
+                            return null;
+                        }
+                        expiresAtSeconds = json.getLongValue();
+                    }
+                    case Claims.NOT_BEFORE -> {
+                        return null;
+                    }
+                    default -> json.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedJwtException("JWT payload is not valid JSON", e);
+        }
+        if (expiresAtSeconds == null) {
+            throw new MissingClaimException(null, null, MISSING_EXPIRATION);
+        }
+
+        Instant expiresAt = Instant.ofEpochSecond(expiresAtSeconds);
+        // Same rule as the parser: valid up to and including the expiry instant
+        if (System.currentTimeMillis() > expiresAt.toEpochMilli()) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + expiresAt);
+        }
+        return new JwtPrincipal(subject, role, expiresAt);
     }
 }
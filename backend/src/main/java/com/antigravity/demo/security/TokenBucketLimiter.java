@@ -0,0 +1,71 @@
+package com.antigravity.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per key: up to {@code capacity} requests at once, refilled
+ * at {@code capacity} per {@code refillPeriod}.
+ * <p>
+ * Each bucket is a single long, the time at which it will next be full,
+ * updated with compare-and-set, so concurrent requests never lock. A
+ * bucket left alone for a full refill period is full again and carries no
+ * state, so it is then dropped; beyond {@code maxKeys} the least recently
+ * used buckets are dropped early.
+ */
+final class TokenBucketLimiter {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, long maxKeys, LongSupplier nanoClock) {
+        this.nanosPerToken = refillPeriod.toNanos() / capacity;
+        this.burstNanos = nanosPerToken * (capacity - 1);
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillPeriod)
+                .build();
+    }
+
+    /**
+     * Takes a token from the key's bucket if it has one.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is
+     *         available
+     */
+    long tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullAt.get();
+            // A bucket that filled up in the past is simply full now
+            long start = current - now < 0 ? now : current;
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + nanosPerToken)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryAcquire}, for a request that
+     * turned out not to count. A bucket that has refilled meanwhile stays
+     * full rather than going over capacity.
+     */
+    void refund(String key) {
+        AtomicLong fullAt = buckets.getIfPresent(key);
+        if (fullAt != null) {
+            fullAt.addAndGet(-nanosPerToken);
+        }
+    }
+}
@@ -2,38 +2,41 @@ package com.antigravity.demo.service;
 
 import com.antigravity.demo.dto.AuthRequest;
 import com.antigravity.demo.dto.AuthResponse;
+import com.antigravity.demo.exception.EmailAlreadyInUseException;
+import com.antigravity.demo.exception.ServiceUnavailableException;
 import com.antigravity.demo.model.Role;
 import com.antigravity.demo.model.User;
+import com.antigravity.demo.model.UuidV7;
 import com.antigravity.demo.repository.UserRepository;
 import com.antigravity.demo.security.JwtService;
+import com.antigravity.demo.security.PasswordHasher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
 
     @Value("${application.security.jwt.expiration-minutes}")
     private long jwtExpiration;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
+    public AuthService(UserRepository userRepository, PasswordHasher passwordHasher, JwtService jwtService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
     }
 
     public AuthResponse register(AuthRequest.RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already in use");
-        }
-
         User user = new User();
+        user.setId(UuidV7.generate());
         user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHasher.encode(request.getPassword()));
+        user.setCreatedAt(Instant.now());
 
         // Default to USER if no role provided, or use provided role
         try {
@@ -46,7 +49,12 @@ public class AuthService {
             user.setRole(Role.USER);
         }
 
-        userRepository.save(user);
+        // No existence check first: the insert itself decides, so concurrent registrations cannot both pass
+        int inserted = userRepository.insertIfEmailAvailable(user.getId(), user.getEmail(), user.getPasswordHash(),
+                user.getRole().name(), user.getCreatedAt());
+        if (inserted == 0) {
+            throw new EmailAlreadyInUseException("Email already in use");
+        }
 
         String jwtToken = jwtService.generateToken(user.getEmail(), user.getRole());
         return new AuthResponse(jwtToken, jwtExpiration * 60, user.getRole().name());
@@ -56,11 +64,25 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
             throw new RuntimeException("Invalid credentials");
         }
+        if (passwordHasher.needsRehash(user.getPasswordHash())) {
+            rehash(user, request.getPassword());
+        }
 
         String jwtToken = jwtService.generateToken(user.getEmail(), user.getRole());
         return new AuthResponse(jwtToken, jwtExpiration * 60, user.getRole().name());
     }
+
+    // The plain password is only at hand during login, so that is when an outdated hash gets replaced
+    private void rehash(User user, String password) {
+        try {
+            user.setPasswordHash(passwordHasher.encode(password));
+        } catch (ServiceUnavailableException e) {
+            // Not worth failing a valid login for; the next login tries again
+            return;
+        }
+        userRepository.save(user);
+    }
 }
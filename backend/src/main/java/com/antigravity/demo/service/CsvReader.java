@@ -0,0 +1,169 @@
+package com.antigravity.demo.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, optionally double-quoted
+ * fields with {@code ""} as an escaped quote, LF or CRLF line endings, and line
+ * breaks allowed inside quoted fields. Only one record is held in memory at a
+ * time, and fields and records are capped in size so a malformed upload cannot
+ * exhaust memory; such records are returned with an error instead of failing
+ * the whole read.
+ */
+public final class CsvReader {
+
+    /**
+     * One record. {@code line} is the line it starts on, counting from 1;
+     * {@code error} is null unless the record is malformed.
+     */
+    public record Row(long line, List<String> fields, String error) {
+    }
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private final int maxFields;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private boolean started;
+
+    public CsvReader(Reader in, int maxFieldLength, int maxFields) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+        this.maxFields = maxFields;
+    }
+
+    /**
+     * Reads the next non-blank record, or returns null at the end of input.
+     */
+    public Row next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') {
+                read();
+            }
+        }
+        while (true) {
+            if (peek() == -1) {
+                return null;
+            }
+            if (peek() == '\n' || peek() == '\r') {
+                consumeLineBreak();
+                continue;
+            }
+            return readRecord();
+        }
+    }
+
+    private Row readRecord() throws IOException {
+        long start = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        String error = null;
+        boolean quoted = false;
+        boolean closedQuote = false;
+
+        while (true) {
+            int c = peek();
+            if (quoted) {
+                if (c == -1) {
+                    error = setError(error, "Unterminated quoted field");
+                    break;
+                }
+                read();
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        error = append(field, '"', error);
+                    } else {
+                        quoted = false;
+                        closedQuote = true;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        line++;
+                    }
+                    error = append(field, (char) c, error);
+                }
+                continue;
+            }
+            if (c == -1 || c == '\n' || c == '\r') {
+                consumeLineBreak();
+                break;
+            }
+            read();
+            if (c == ',') {
+                error = addField(fields, field, error);
+                closedQuote = false;
+            } else if (c == '"' && field.isEmpty() && !closedQuote) {
+                quoted = true;
+            } else if (closedQuote) {
+                error = setError(error, "Unexpected character after closing quote");
+            } else {
+                error = append(field, (char) c, error);
+            }
+        }
+        error = addField(fields, field, error);
+        return new Row(start, fields, error);
+    }
+
+    private String append(StringBuilder field, char c, String error) {
+        if (field.length() >= maxFieldLength) {
+            return setError(error, "Field exceeds " + maxFieldLength + " characters");
+        }
+        field.append(c);
+        return error;
+    }
+
+    private String addField(List<String> fields, StringBuilder field, String error) {
+        if (fields.size() >= maxFields) {
+            error = setError(error, "Record has more than " + maxFields + " fields");
+        } else {
+            fields.add(field.toString());
+        }
+        field.setLength(0);
+        return error;
+    }
+
+    private static String setError(String current, String error) {
+        return current != null ? current : error;
+    }
+
+    private void consumeLineBreak() throws IOException {
+        int c = peek();
+        if (c == '\r') {
+            read();
+            if (peek() == '\n') {
+                read();
+            }
+            line++;
+        } else if (c == '\n') {
+            read();
+            line++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,15 @@
+package com.antigravity.demo.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One event from the outbox. The id increases with every event written and
+ * is what consumers should deduplicate on, since delivery is at least once.
+ *
+ * @param aggregateId the changed product, or null for bulk changes
+ * @param payload the event as a JSON object
+ */
+public record OutboxMessage(long id, String aggregateType, UUID aggregateId, String eventType, String payload,
+        Instant createdAt) {
+}
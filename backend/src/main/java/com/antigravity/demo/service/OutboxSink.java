@@ -0,0 +1,18 @@
+package com.antigravity.demo.service;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay hands product change events to, such as a
+ * message broker. Provide a bean of this type to replace the default, which
+ * writes events to the log.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch of events, in id order. Returning means every message
+     * was accepted and will be removed from the outbox; throwing leaves the
+     * whole batch to be retried, so a sink may see a message more than once.
+     */
+    void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,23 @@
+package com.antigravity.demo.service;
+
+/**
+ * Pre-serialized JSON array of the whole catalog, in identity and gzip
+ * encodings. Instances are shared between requests; the arrays must never be
+ * modified after construction.
+ *
+ * @param contentVersion digest of the id and version of every product in the
+ *                       snapshot, used as the list entity tag
+ */
+public record ProductCatalogSnapshot(byte[] json, byte[] gzippedJson, int productCount, String contentVersion) {
+
+    public String etag() {
+        return "\"" + contentVersion + "\"";
+    }
+
+    /**
+     * The gzip body is a different representation and so needs its own strong tag.
+     */
+    public String gzipEtag() {
+        return "\"" + contentVersion + "-gzip\"";
+    }
+}
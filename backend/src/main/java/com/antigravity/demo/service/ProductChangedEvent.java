@@ -0,0 +1,34 @@
+package com.antigravity.demo.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by the product service for every catalog mutation. Listeners that
+ * maintain derived state (snapshots, caches) should react after commit.
+ *
+ * @param changedFields the editable fields the mutation may have changed, in
+ *        {@link #ALL_FIELDS} order; empty for deletes
+ */
+public record ProductChangedEvent(UUID productId, Operation operation, List<String> changedFields) {
+
+    public static final List<String> ALL_FIELDS = List.of("name", "description", "price", "stock");
+
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public ProductChangedEvent {
+        changedFields = List.copyOf(changedFields);
+    }
+
+    /**
+     * An event for a mutation that may have changed every field: all fields
+     * for creates and updates, none for deletes.
+     */
+    public ProductChangedEvent(UUID productId, Operation operation) {
+        this(productId, operation, operation == Operation.DELETED ? List.of() : ALL_FIELDS);
+    }
+}
@@ -0,0 +1,72 @@
+package com.antigravity.demo.service;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.repository.ProductSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position over (sort key, id) used by the paginated product
+ * listing. A cursor is only valid for the ordering it was issued for. Clients
+ * must treat the encoded form as an unstructured token.
+ */
+public record ProductCursor(ProductSort sort, Comparable<?> key, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Position right after the given row.
+     */
+    public static ProductCursor after(ProductSort sort, ProductResponse product) {
+        return new ProductCursor(sort, sort.keyOf(product), product.id());
+    }
+
+    public String encode() {
+        // The key goes last: names may contain the separator
+        String text = sort.name() + SEPARATOR + id + SEPARATOR + formatKey(key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()} for the given
+     * ordering. Throws IllegalArgumentException if the token is malformed or
+     * was issued for a different ordering.
+     */
+    public static ProductCursor decode(String token, ProductSort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort.name())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+
+        try {
+            return new ProductCursor(sort, parseKey(sort, parts[2]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String formatKey(Comparable<?> key) {
+        return key instanceof BigDecimal price ? price.toPlainString() : key.toString();
+    }
+
+    private static Comparable<?> parseKey(ProductSort sort, String text) {
+        return switch (sort.attribute()) {
+            case "createdAt" -> Instant.parse(text);
+            case "price" -> new BigDecimal(text);
+            default -> text;
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.antigravity.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns free-text user input into a Postgres tsquery in which all words must
+ * match. The last word is matched as a prefix while it is still being typed,
+ * so "wireless key" finds "Wireless Keyboard"; a trailing separator marks it
+ * complete. Earlier words are matched exactly because GIN prefix matches cost
+ * time proportional to the number of rows they hit, while exact matches do
+ * not. Anything that is not a letter or digit only separates words, which
+ * keeps tsquery operators out of user input.
+ */
+public final class ProductSearchQuery {
+
+    private static final int MAX_TERMS = 8;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private ProductSearchQuery() {
+        // Utility class
+    }
+
+    public static String toTsQuery(String input) {
+        List<String> terms = new ArrayList<>();
+        boolean lastTermComplete = true;
+        if (input != null) {
+            StringBuilder term = new StringBuilder();
+            for (int i = 0; i < input.length(); i++) {
+                char c = input.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    if (term.length() < MAX_TERM_LENGTH) {
+                        term.append(c);
+                    }
+                    lastTermComplete = false;
+                } else if (!term.isEmpty()) {
+                    terms.add(term.toString().toLowerCase(Locale.ROOT));
+                    term.setLength(0);
+                    lastTermComplete = true;
+                }
+            }
+            if (!term.isEmpty()) {
+                terms.add(term.toString().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("q must contain at least one letter or digit");
+        }
+        if (terms.size() > MAX_TERMS) {
+            terms = terms.subList(0, MAX_TERMS);
+            lastTermComplete = true;
+        }
+
+        int last = terms.size() - 1;
+        if (!lastTermComplete && terms.get(last).length() >= MIN_PREFIX_LENGTH) {
+            terms.set(last, terms.get(last) + ":*");
+        }
+        return String.join(" & ", terms);
+    }
+}
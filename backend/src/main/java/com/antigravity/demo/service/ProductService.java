@@ -1,17 +1,40 @@
 package com.antigravity.demo.service;
 
 import com.antigravity.demo.dto.ProductDTOs.*;
+import com.antigravity.demo.repository.ProductFilter;
+import com.antigravity.demo.repository.ProductSort;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ProductService {
     ProductResponse createProduct(ProductCreateRequest request);
 
+    ProductBulkCreateResponse createProducts(List<ProductCreateRequest> requests);
+
+    ProductImportResponse importProducts(InputStream csv) throws IOException;
+
     ProductResponse getProduct(UUID id);
 
-    List<ProductResponse> getAllProducts();
+    ProductBatchResponse getProductsByIds(List<UUID> ids);
+
+    ProductTrendingResponse getTrendingProducts(Integer limit);
+
+    ProductCatalogSnapshot getCatalogSnapshot();
+
+    ProductPageResponse getProductPage(String cursor, Integer limit, ProductFilter filter, ProductSort sort);
+
+    ProductSearchResponse searchProducts(String query, Integer page, Integer limit);
+
+    void exportProducts(Consumer<ProductResponse> consumer);
+
+    ProductResponse updateProduct(UUID id, ProductUpdateRequest request, Long expectedVersion);
+
+    ProductResponse patchProduct(UUID id, ProductPatchRequest request, Long expectedVersion);
 
-    ProductResponse updateProduct(UUID id, ProductUpdateRequest request);
+    ProductStockResponse decrementStock(UUID id, int quantity);
 
-    void deleteProduct(UUID id);
+    void deleteProduct(UUID id, Long expectedVersion);
 }
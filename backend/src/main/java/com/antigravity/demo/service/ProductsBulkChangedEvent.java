@@ -0,0 +1,9 @@
+package com.antigravity.demo.service;
+
+/**
+ * Published once, instead of a {@link ProductChangedEvent} per product, by
+ * operations that write many products at once. Listeners should treat every
+ * product as possibly changed.
+ */
+public record ProductsBulkChangedEvent(int count) {
+}
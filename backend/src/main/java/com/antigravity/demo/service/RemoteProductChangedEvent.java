@@ -0,0 +1,19 @@
+package com.antigravity.demo.service;
+
+/**
+ * Published on this node for a product change committed on another node, as
+ * received through the cross-node broadcast. This node's caches have already
+ * been evicted when it is published; it is for listeners that pass changes on,
+ * such as live views, which would otherwise only see this node's writes.
+ *
+ * @param change the change, or null if its details were not received (a bulk
+ *        change, an unreadable notification, or notifications missed while
+ *        disconnected) and every product must be treated as possibly changed
+ */
+public record RemoteProductChangedEvent(ProductChangedEvent change) {
+
+    /** An event for changes whose details are unknown. */
+    public static RemoteProductChangedEvent unknown() {
+        return new RemoteProductChangedEvent(null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.antigravity.demo.service.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects items during a transaction and hands them to the flush action in
+ * one call right before the transaction commits, so a side write made per
+ * change costs one statement per transaction however many changes it holds.
+ * Nothing is flushed if the transaction rolls back. Outside a transaction, or
+ * once the transaction has started committing, items are flushed one by one
+ * straight away.
+ */
+final class BeforeCommitBatch<T> {
+
+    private final Consumer<List<T>> flush;
+    // The batch of the current thread's transaction; a typed stand-in for a transaction resource
+    private final ThreadLocal<Pending> current = new ThreadLocal<>();
+
+    BeforeCommitBatch(Consumer<List<T>> flush) {
+        this.flush = flush;
+    }
+
+    void add(T item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            flush.accept(List.of(item));
+            return;
+        }
+        Pending pending = current.get();
+        if (pending == null) {
+            pending = new Pending();
+            current.set(pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        if (pending.flushed) {
+            flush.accept(List.of(item));
+        } else {
+            pending.items.add(item);
+        }
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final List<T> items = new ArrayList<>();
+        private boolean flushed;
+
+        // A transaction started while this one is suspended collects its own batch
+        @Override
+        public void suspend() {
+            current.remove();
+        }
+
+        @Override
+        public void resume() {
+            current.set(this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushed = true;
+            flush.accept(items);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            current.remove();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.antigravity.demo.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Approximate heavy hitters: a Count-Min Sketch estimates every product's count
+ * in fixed memory, and a min-heap keeps the {@code capacity} products with the
+ * highest estimates seen so far. Estimates never undercount; they overcount
+ * by at most about {@code e / width} of the total with probability
+ * {@code 1 - e^-depth}.
+ * <p>
+ * Not thread-safe: meant to be fed by a single writer, such as a periodic flush
+ * of aggregated counts, with readers given copies from {@link #top()}.
+ */
+class CountMinTopK {
+
+    record Entry(UUID id, long estimate) {
+    }
+
+    private static final Comparator<Entry> BY_ESTIMATE = Comparator.comparingLong(Entry::estimate);
+
+    private final long[][] counters;
+    private final long[] seeds;
+    private final int mask;
+    private final int capacity;
+    private final PriorityQueue<Entry> heap;
+    private final Map<UUID, Entry> tracked = new HashMap<>();
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    CountMinTopK(int width, int depth, int capacity) {
+        int roundedWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.counters = new long[depth][roundedWidth];
+        this.mask = roundedWidth - 1;
+        this.seeds = new long[depth];
+        for (int row = 0; row < depth; row++) {
+            // Distinct odd constants; any fixed set works since the mix below does the spreading
+            seeds[row] = 0x9E3779B97F4A7C15L * (2 * row + 1);
+        }
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity, BY_ESTIMATE);
+    }
+
+    void add(UUID id, long count) {
+        long key = id.getMostSignificantBits() * 31 + id.getLeastSignificantBits();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            int index = (int) mix(key ^ seeds[row]) & mask;
+            counters[row][index] += count;
+            estimate = Math.min(estimate, counters[row][index]);
+        }
+
+        Entry previous = tracked.get(id);
+        if (previous != null) {
+            heap.remove(previous);
+        } else if (heap.size() >= capacity) {
+            if (heap.peek().estimate() >= estimate) {
+                return;
+            }
+            tracked.remove(heap.poll().id());
+        }
+        Entry entry = new Entry(id, estimate);
+        heap.add(entry);
+        tracked.put(id, entry);
+    }
+
+    /**
+     * Halves every count, so past popularity fades and recent views dominate.
+     */
+    void decay() {
+        for (long[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        List<Entry> entries = new ArrayList<>(heap);
+        heap.clear();
+        tracked.clear();
+        for (Entry entry : entries) {
+            if (entry.estimate() > 1) {
+                Entry halved = new Entry(entry.id(), entry.estimate() >>> 1);
+                heap.add(halved);
+                tracked.put(halved.id(), halved);
+            }
+        }
+    }
+
+    /**
+     * The tracked products, highest estimate first.
+     */
+    List<Entry> top() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(BY_ESTIMATE.reversed());
+        return entries;
+    }
+
+    // Finalizer of MurmurHash3's 64-bit variant
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,25 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.service.OutboxMessage;
+import com.antigravity.demo.service.OutboxSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Default {@link OutboxSink}: writes each event as one line to the
+ * "outbox" logger, which logging configuration can route to its own file.
+ */
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger("outbox");
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("{} {} {} {} {}", message.id(), message.eventType(), message.aggregateId(),
+                    message.createdAt(), message.payload());
+        }
+    }
+}
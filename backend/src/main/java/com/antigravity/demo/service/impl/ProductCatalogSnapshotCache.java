@@ -0,0 +1,168 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.service.ProductCatalogSnapshot;
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductsBulkChangedEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the encoded full-catalog response so that list reads are a plain byte
+ * copy. The snapshot is built on first use and rebuilt in the background after
+ * every committed product change; bursts of changes coalesce into a single
+ * rebuild, and readers keep getting the previous snapshot until it is swapped.
+ */
+@Component
+public class ProductCatalogSnapshotCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogSnapshotCache.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter productWriter;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("catalog-snapshot").daemon().factory());
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @Value("${application.products.export.fetch-size:500}")
+    private int fetchSize = 500;
+
+    private volatile ProductCatalogSnapshot current;
+
+    public ProductCatalogSnapshotCache(ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.productWriter = objectMapper.writerFor(ProductResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public ProductCatalogSnapshot get() {
+        ProductCatalogSnapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current == null) {
+                current = build();
+            }
+            return current;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    void scheduleRebuild() {
+        // Only one rebuild is ever queued; it reads whatever is committed when it starts
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    ProductCatalogSnapshot rebuilt = build();
+                    synchronized (this) {
+                        current = rebuilt;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Catalog snapshot rebuild failed, serving previous snapshot", e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private ProductCatalogSnapshot build() {
+        long start = System.nanoTime();
+        ByteArrayOutputStream json = new ByteArrayOutputStream(64 * 1024);
+        int[] count = new int[1];
+        MessageDigest digest = newDigest();
+        ByteBuffer versionKey = ByteBuffer.allocate(3 * Long.BYTES);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+                generator.writeStartArray();
+                productRepository.forEachProduct(fetchSize, product -> {
+                    try {
+                        productWriter.writeValue(generator, product);
+                        versionKey.clear();
+                        versionKey.putLong(product.id().getMostSignificantBits())
+                                .putLong(product.id().getLeastSignificantBits())
+                                .putLong(product.version());
+                        digest.update(versionKey.array());
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        byte[] identity = json.toByteArray();
+        ProductCatalogSnapshot snapshot = new ProductCatalogSnapshot(identity, gzip(identity), count[0],
+                HexFormat.of().formatHex(digest.digest(), 0, 16));
+        log.debug("Built catalog snapshot: {} products, {} bytes ({} gzipped) in {} ms",
+                snapshot.productCount(), identity.length, snapshot.gzippedJson().length,
+                (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(bytes.length / 4, 512));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
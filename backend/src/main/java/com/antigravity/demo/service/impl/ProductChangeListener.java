@@ -0,0 +1,240 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductChangedEvent.Operation;
+import com.antigravity.demo.service.RemoteProductChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.postgresql.PGProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Receives the product changes other nodes broadcast through
+ * {@link ProductChangeNotifier} and evicts the affected entries from this
+ * node's second-level and query caches and catalog snapshot, then republishes
+ * each as a {@link RemoteProductChangedEvent} for this node's live views.
+ * <p>
+ * Listens on a dedicated connection outside the pool, since LISTEN is bound
+ * to the session. When that connection is lost, notifications sent in the
+ * meantime are lost with it, so after reconnecting every local product cache
+ * is dropped instead. So is everything after a bulk change or a notification
+ * that cannot be read.
+ */
+@Component
+public class ProductChangeListener implements SmartLifecycle {
+
+    static final String APPLICATION_NAME = "product-change-listener";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeListener.class);
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ProductChangeNotifier notifier;
+    private final SessionFactory sessionFactory;
+    private final ProductCatalogSnapshotCache catalogSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.products.invalidation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${application.products.invalidation.poll-timeout:500ms}")
+    private Duration pollTimeout = Duration.ofMillis(500);
+
+    @Value("${application.products.invalidation.reconnect-delay:1s}")
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+    @Value("${application.products.invalidation.max-reconnect-delay:30s}")
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public ProductChangeListener(DataSourceProperties dataSourceProperties,
+            ProductChangeNotifier notifier,
+            EntityManagerFactory entityManagerFactory,
+            ProductCatalogSnapshotCache catalogSnapshotCache,
+            ApplicationEventPublisher eventPublisher) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.notifier = notifier;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        // Connect before the web server starts taking requests, so nothing gets cached unobserved
+        Connection connection = null;
+        try {
+            connection = connect();
+        } catch (SQLException e) {
+            log.warn("Product change listener could not connect, retrying in the background", e);
+        }
+        Connection initial = connection;
+        thread = Thread.ofPlatform().name("product-change-listener").daemon().start(() -> listen(initial));
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(pollTimeout.multipliedBy(4).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server, which uses DEFAULT_PHASE - 1024
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private void listen(Connection initial) {
+        Connection connection = initial;
+        boolean missedNotifications = initial == null;
+        Duration delay = reconnectDelay;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect();
+                }
+                if (missedNotifications) {
+                    log.info("Product change listener reconnected, dropping local product caches");
+                    evictAll();
+                    missedNotifications = false;
+                }
+                delay = reconnectDelay;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Product change listener failed, reconnecting in {} ms", delay.toMillis(), e);
+                closeQuietly(connection);
+                connection = null;
+                missedNotifications = true;
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                delay = delay.multipliedBy(2).compareTo(maxReconnectDelay) > 0
+                        ? maxReconnectDelay
+                        : delay.multipliedBy(2);
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty(PGProperty.USER.getName(), dataSourceProperties.determineUsername());
+        properties.setProperty(PGProperty.PASSWORD.getName(), dataSourceProperties.determinePassword());
+        properties.setProperty(PGProperty.APPLICATION_NAME.getName(), APPLICATION_NAME);
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + ProductChangeNotifier.CHANNEL);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        if (parts[0].equals(notifier.nodeId())) {
+            return;
+        }
+        ProductChangedEvent change = parse(parts);
+        if (change == null) {
+            if (parts.length != 3 || !parts[1].equals(ProductChangeNotifier.BULK)) {
+                log.warn("Unreadable product change notification, dropping local product caches: {}", payload);
+            }
+            evictAll();
+            return;
+        }
+        sessionFactory.getCache().evict(Product.class, change.productId());
+        // Query results are only invalidated locally by Hibernate, so drop them all
+        sessionFactory.getCache().evictDefaultQueryRegion();
+        catalogSnapshotCache.scheduleRebuild();
+        eventPublisher.publishEvent(new RemoteProductChangedEvent(change));
+    }
+
+    /** Returns the single-product change in a notification, or null if it has none. */
+    private static ProductChangedEvent parse(String[] parts) {
+        if (parts.length < 3 || parts.length > 4 || parts[1].equals(ProductChangeNotifier.BULK)) {
+            return null;
+        }
+        try {
+            UUID productId = UUID.fromString(parts[2]);
+            Operation operation = Operation.valueOf(parts[1]);
+            if (parts.length == 3) {
+                // From a node that does not send fields yet, during a rolling deploy
+                return new ProductChangedEvent(productId, operation);
+            }
+            return new ProductChangedEvent(productId, operation,
+                    parts[3].isEmpty() ? List.of() : Arrays.asList(parts[3].split(",")));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void evictAll() {
+        sessionFactory.getCache().evict(Product.class);
+        sessionFactory.getCache().evictDefaultQueryRegion();
+        catalogSnapshotCache.scheduleRebuild();
+        eventPublisher.publishEvent(RemoteProductChangedEvent.unknown());
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close product change listener connection", e);
+        }
+    }
+}
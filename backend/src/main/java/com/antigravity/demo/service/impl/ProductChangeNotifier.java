@@ -0,0 +1,63 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductsBulkChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Broadcasts product changes to the other application nodes through Postgres
+ * NOTIFY, so they can drop what they cached locally. The notifications are
+ * sent on the writing transaction's connection, in one statement right before
+ * it commits: Postgres only delivers them once that transaction commits, and
+ * never if it rolls back.
+ * <p>
+ * A notification is {@code node|operation|id|fields}, fields comma-separated,
+ * or {@code node|BULK|count} for bulk changes.
+ *
+ * @see ProductChangeListener
+ */
+@Component
+public class ProductChangeNotifier {
+
+    static final String CHANNEL = "product_changed";
+    // Operation sent for bulk changes, in place of a single product's operation and id
+    static final String BULK = "BULK";
+
+    private static final String BROADCAST_SQL = "SELECT pg_notify(?, change) FROM unnest(?::text[]) AS change";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Lets each node skip its own notifications; it already evicted locally
+    private final String nodeId = UUID.randomUUID().toString();
+    private final BeforeCommitBatch<String> changes = new BeforeCommitBatch<>(this::broadcast);
+
+    public ProductChangeNotifier(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        changes.add(nodeId + '|' + event.operation() + '|' + event.productId() + '|'
+                + String.join(",", event.changedFields()));
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        changes.add(nodeId + '|' + BULK + "|" + event.count());
+    }
+
+    private void broadcast(List<String> batch) {
+        jdbcTemplate.query(BROADCAST_SQL, statement -> {
+            statement.setString(1, CHANNEL);
+            statement.setArray(2, statement.getConnection().createArrayOf("text", batch.toArray()));
+        }, rs -> null);
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+}
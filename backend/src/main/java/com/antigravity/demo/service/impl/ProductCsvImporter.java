@@ -0,0 +1,304 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductImportError;
+import com.antigravity.demo.dto.ProductDTOs.ProductImportResponse;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.model.UuidV7;
+import com.antigravity.demo.service.CsvReader;
+import com.antigravity.demo.service.InputSanitizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.query.NativeQuery;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Loads a CSV catalog into products. Rows are parsed and validated one at a
+ * time while valid ones are streamed through COPY into a temporary staging
+ * table, which is then merged into products with a single statement; the
+ * upload is never held in memory. Must run inside a transaction: the staging
+ * table lives until commit, and the merge is all or nothing.
+ * <p>
+ * The header names the columns, in any order: name, price and stock are
+ * required, description and id optional. Rows with an id update that product
+ * if it exists; all other rows create new products.
+ */
+@Component
+class ProductCsvImporter {
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "price", "stock");
+    private static final Set<String> COLUMNS = Set.of("id", "name", "description", "price", "stock");
+    // Larger than any valid value, so over-long fields are still reported by the usual validation
+    private static final int MAX_FIELD_LENGTH = 4096;
+    private static final int COPY_CHUNK_CHARS = 64 * 1024;
+    // DECIMAL(19, 2)
+    private static final int MAX_PRICE_INTEGER_DIGITS = 17;
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMPORARY TABLE product_import_staging (
+                line BIGINT NOT NULL,
+                id UUID NOT NULL,
+                name VARCHAR(120) NOT NULL,
+                description VARCHAR(1000),
+                price DECIMAL(19, 2) NOT NULL,
+                stock INTEGER NOT NULL,
+                created_at TIMESTAMP WITH TIME ZONE NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL = "COPY product_import_staging "
+            + "(line, id, name, description, price, stock, created_at) FROM STDIN WITH (FORMAT csv)";
+
+    // When an id appears more than once, its last row wins
+    private static final String MERGE_SQL = """
+            INSERT INTO products (id, name, description, price, stock, created_at)
+            SELECT DISTINCT ON (id) id, name, description, price, stock, created_at
+            FROM product_import_staging
+            ORDER BY id, line DESC
+            ON CONFLICT (id) DO UPDATE SET
+                name = EXCLUDED.name,
+                description = EXCLUDED.description,
+                price = EXCLUDED.price,
+                stock = EXCLUDED.stock,
+                version = products.version + 1
+            """;
+
+    private final DataSource dataSource;
+    private final Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${application.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    ProductCsvImporter(DataSource dataSource, Validator validator) {
+        this.dataSource = dataSource;
+        this.validator = validator;
+    }
+
+    ProductImportResponse importCsv(InputStream csv) throws IOException {
+        long start = System.nanoTime();
+        CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8),
+                MAX_FIELD_LENGTH, COLUMNS.size() + 1);
+        Map<String, Integer> columns = readHeader(reader.next());
+
+        long rowsRead = 0;
+        long rejected = 0;
+        List<ProductImportError> errors = new ArrayList<>();
+        Instant createdAt = Instant.now();
+        StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 4096);
+
+        CopyIn copy = startCopy();
+        try {
+            CsvReader.Row row;
+            while ((row = reader.next()) != null) {
+                rowsRead++;
+                String error = row.error() != null ? row.error() : appendIfValid(row, columns, createdAt, chunk);
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < maxReportedErrors) {
+                        errors.add(new ProductImportError(row.line(), error));
+                    }
+                }
+                if (chunk.length() >= COPY_CHUNK_CHARS) {
+                    writeChunk(copy, chunk);
+                }
+            }
+            writeChunk(copy, chunk);
+            copy.endCopy();
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY into import staging table failed", e);
+        } finally {
+            cancelIfActive(copy);
+        }
+        long copied = System.nanoTime();
+
+        // Synchronizing on Product makes Hibernate evict the entity region and
+        // invalidate cached queries over products once the statement runs
+        int merged = entityManager.createNativeQuery(MERGE_SQL)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Product.class)
+                .executeUpdate();
+        long finished = System.nanoTime();
+
+        long elapsedMillis = (finished - start) / 1_000_000;
+        return new ProductImportResponse(rowsRead, merged, rejected, List.copyOf(errors),
+                rejected > errors.size(),
+                (copied - start) / 1_000_000,
+                (finished - copied) / 1_000_000,
+                rowsRead * 1000 / Math.max(elapsedMillis, 1));
+    }
+
+    private static Map<String, Integer> readHeader(CsvReader.Row header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty; expected a header row");
+        }
+        if (header.error() != null) {
+            throw new IllegalArgumentException("Invalid CSV header: " + header.error());
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.fields().size(); i++) {
+            String column = header.fields().get(i).trim().toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + header.fields().get(i));
+            }
+            if (columns.put(column, i) != null) {
+                throw new IllegalArgumentException("Duplicate CSV column: " + column);
+            }
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing required CSV column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Validates one row with the same rules as a single create and, if valid,
+     * appends it to the COPY chunk. Returns the error message otherwise.
+     */
+    private String appendIfValid(CsvReader.Row row, Map<String, Integer> columns, Instant createdAt,
+            StringBuilder chunk) {
+        List<String> fields = row.fields();
+        if (fields.size() != columns.size()) {
+            return "Expected " + columns.size() + " fields but found " + fields.size();
+        }
+
+        UUID id;
+        String idField = field(fields, columns, "id");
+        try {
+            id = StringUtils.hasText(idField) ? UUID.fromString(idField.trim()) : UuidV7.generate();
+        } catch (IllegalArgumentException e) {
+            return "id: not a valid UUID";
+        }
+
+        BigDecimal price;
+        Integer stock;
+        try {
+            price = parse(field(fields, columns, "price"), BigDecimal::new);
+        } catch (NumberFormatException e) {
+            return "price: not a valid number";
+        }
+        try {
+            stock = parse(field(fields, columns, "stock"), Integer::valueOf);
+        } catch (NumberFormatException e) {
+            return "stock: not a valid integer";
+        }
+
+        ProductCreateRequest request = new ProductCreateRequest(field(fields, columns, "name"),
+                field(fields, columns, "description"), price, stock);
+        Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            StringJoiner message = new StringJoiner("; ");
+            violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .forEach(message::add);
+            return message.toString();
+        }
+        if (price.precision() - price.scale() > MAX_PRICE_INTEGER_DIGITS) {
+            return "price: out of range";
+        }
+
+        String name;
+        String description;
+        try {
+            name = InputSanitizer.sanitize(request.name(), "Name", 100, true);
+            description = InputSanitizer.sanitize(request.description(), "Description", 1000, false);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+
+        chunk.append(row.line()).append(',')
+                .append(id).append(',');
+        appendQuoted(chunk, name).append(',');
+        if (description != null) {
+            appendQuoted(chunk, description);
+        }
+        chunk.append(',').append(price.toPlainString())
+                .append(',').append(stock)
+                .append(',').append(createdAt)
+                .append('\n');
+        return null;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null ? fields.get(index) : null;
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser) {
+        return StringUtils.hasText(value) ? parser.apply(value.trim()) : null;
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder chunk, String value) {
+        chunk.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                chunk.append('"');
+            }
+            chunk.append(c);
+        }
+        return chunk.append('"');
+    }
+
+    private CopyIn startCopy() {
+        // The transaction's own connection, so the merge sees the staging table and the copied rows
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not start COPY into import staging table", e);
+        }
+    }
+
+    private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static void cancelIfActive(CopyIn copy) {
+        if (copy.isActive()) {
+            try {
+                copy.cancelCopy();
+            } catch (SQLException e) {
+                // The transaction is rolled back anyway
+            }
+        }
+    }
+}
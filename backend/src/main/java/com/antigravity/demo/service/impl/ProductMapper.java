@@ -0,0 +1,22 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.model.Product;
+
+final class ProductMapper {
+
+    private ProductMapper() {
+        // Utility class
+    }
+
+    static ProductResponse toResponse(Product product) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStock(),
+                product.getCreatedAt(),
+                product.getVersion());
+    }
+}
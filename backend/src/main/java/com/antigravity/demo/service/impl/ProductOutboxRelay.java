@@ -0,0 +1,176 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.service.OutboxMessage;
+import com.antigravity.demo.service.OutboxSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves events from the outbox table to the {@link OutboxSink}. Each batch is
+ * claimed with FOR UPDATE SKIP LOCKED, handed to the sink and deleted in one
+ * transaction, so every node can run a relay: concurrent relays take disjoint
+ * batches, and a batch whose node fails before commit is simply claimed again.
+ * <p>
+ * Delivery is therefore at least once, and only ordered within a batch; when
+ * several nodes relay, consumers should order and deduplicate by message id.
+ * Without an {@link OutboxSink} bean, events go to a {@link LoggingOutboxSink}.
+ */
+@Component
+class ProductOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductOutboxRelay.class);
+
+    private static final String CLAIM_SQL = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload::text AS payload, created_at
+            FROM outbox
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getString("aggregate_type"),
+            rs.getObject("aggregate_id", UUID.class),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final ScheduledExecutorService relayExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-relay").daemon().factory());
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    private final Timer lag;
+    private final Counter published;
+    private final Counter failures;
+
+    @Value("${application.products.outbox.relay.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${application.products.outbox.relay.poll-interval:1s}")
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    @Value("${application.products.outbox.relay.batch-size:500}")
+    private int batchSize = 500;
+
+    ProductOutboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectProvider<OutboxSink> sinks, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sinks.getIfAvailable(LoggingOutboxSink::new);
+        Gauge.builder("outbox.backlog", backlog, AtomicLong::get)
+                .description("Events waiting in the outbox, as of the last relay run")
+                .register(meterRegistry);
+        TimeGauge.builder("outbox.oldest.age", oldestAgeMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest event waiting in the outbox, as of the last relay run")
+                .register(meterRegistry);
+        this.lag = Timer.builder("outbox.relay.lag")
+                .description("Time from writing an event to handing it to the sink")
+                .register(meterRegistry);
+        this.published = Counter.builder("outbox.relay.published").register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            relayExecutor.scheduleWithFixedDelay(this::relayQuietly,
+                    pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        relayExecutor.shutdownNow();
+    }
+
+    /**
+     * Relays batches until the outbox has no unclaimed events left, then
+     * refreshes the backlog gauges. Returns the number of events relayed.
+     */
+    int relayPending() {
+        int total = 0;
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+                total += relayed;
+            } while (relayed == batchSize);
+        } finally {
+            refreshBacklog();
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxMessage> messages = jdbcTemplate.query(CLAIM_SQL, MESSAGE_MAPPER, batchSize);
+            if (messages.isEmpty()) {
+                return 0;
+            }
+            sink.publish(messages);
+
+            Instant now = Instant.now();
+            Object[] ids = new Object[messages.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = messages.get(i).id();
+                lag.record(Duration.between(messages.get(i).createdAt(), now));
+            }
+            jdbcTemplate.update("DELETE FROM outbox WHERE id = ANY (?)", statement -> {
+                Connection connection = statement.getConnection();
+                statement.setArray(1, connection.createArrayOf("bigint", ids));
+            });
+            return messages.size();
+        });
+        published.increment(relayed);
+        return relayed;
+    }
+
+    private void refreshBacklog() {
+        jdbcTemplate.query("""
+                SELECT count(*) AS backlog,
+                       coalesce(extract(epoch FROM clock_timestamp() - min(created_at)) * 1000, 0) AS oldest_age
+                FROM outbox
+                """, rs -> {
+            backlog.set(rs.getLong("backlog"));
+            oldestAgeMillis.set(rs.getLong("oldest_age"));
+        });
+    }
+
+    private void relayQuietly() {
+        try {
+            relayPending();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Relaying outbox events failed, retrying with the next poll", e);
+        }
+    }
+}
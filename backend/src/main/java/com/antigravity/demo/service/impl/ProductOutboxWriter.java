@@ -0,0 +1,43 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductsBulkChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records product changes in the outbox table. The rows are inserted on the
+ * writing transaction's connection right before it commits, as one JDBC batch
+ * per transaction, so an event exists exactly when its change does;
+ * {@link ProductOutboxRelay} delivers it afterwards.
+ */
+@Component
+public class ProductOutboxWriter {
+
+    static final String AGGREGATE_TYPE = "product";
+    static final String BULK_CHANGED = "PRODUCTS_BULK_CHANGED";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload)
+            VALUES (?, ?, ?, ?::jsonb)
+            """;
+
+    private final BeforeCommitBatch<Object[]> rows;
+
+    public ProductOutboxWriter(JdbcTemplate jdbcTemplate) {
+        this.rows = new BeforeCommitBatch<>(batch -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        String payload = "{\"productId\":\"" + event.productId() + "\",\"operation\":\"" + event.operation() + "\"}";
+        rows.add(new Object[] {AGGREGATE_TYPE, event.productId(), "PRODUCT_" + event.operation(), payload});
+    }
+
+    // Bulk writes carry no ids; consumers should resynchronize the whole catalog
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        rows.add(new Object[] {AGGREGATE_TYPE, null, BULK_CHANGED, "{\"count\":" + event.count() + "}"});
+    }
+}
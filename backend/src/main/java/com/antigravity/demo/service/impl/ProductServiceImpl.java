@@ -1,88 +1,370 @@
 package com.antigravity.demo.service.impl;
 
 import com.antigravity.demo.dto.ProductDTOs.*;
+import com.antigravity.demo.exception.PreconditionFailedException;
 import com.antigravity.demo.exception.ProductNotFoundException;
 import com.antigravity.demo.model.Product;
+import com.antigravity.demo.model.UuidV7;
+import com.antigravity.demo.repository.ProductFilter;
 import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.repository.ProductSort;
+import com.antigravity.demo.repository.ProductWriteResult;
 import com.antigravity.demo.service.InputSanitizer;
+import com.antigravity.demo.service.ProductCatalogSnapshot;
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductChangedEvent.Operation;
+import com.antigravity.demo.service.ProductCursor;
+import com.antigravity.demo.service.ProductSearchQuery;
 import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.service.ProductsBulkChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCatalogSnapshotCache catalogSnapshotCache;
+    private final ProductCsvImporter csvImporter;
+    private final ProductViewCounter viewCounter;
+    private final ProductWriteBatcher writeBatcher;
 
-    public ProductServiceImpl(ProductRepository productRepository) {
+    @Value("${application.products.page.default-size:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${application.products.page.max-size:100}")
+    private int maxPageSize = 100;
+
+    @Value("${application.products.batch.max-ids:100}")
+    private int maxBatchIds = 100;
+
+    @Value("${application.products.bulk.max-size:5000}")
+    private int maxBulkSize = 5000;
+
+    @Value("${application.products.bulk.flush-size:1000}")
+    private int bulkFlushSize = 1000;
+
+    @Value("${application.products.search.max-candidates:1000}")
+    private int searchMaxCandidates = 1000;
+
+    @Value("${application.products.export.fetch-size:500}")
+    private int exportFetchSize = 500;
+
+    @Value("${application.products.trending.default-size:10}")
+    private int defaultTrendingSize = 10;
+
+    public ProductServiceImpl(ProductRepository productRepository,
+            ApplicationEventPublisher eventPublisher,
+            ProductCatalogSnapshotCache catalogSnapshotCache,
+            ProductCsvImporter csvImporter,
+            ProductViewCounter viewCounter,
+            ProductWriteBatcher writeBatcher) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.csvImporter = csvImporter;
+        this.viewCounter = viewCounter;
+        this.writeBatcher = writeBatcher;
     }
 
+    // The batcher opens the transaction, so a caller waiting for group commit holds no connection
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductResponse createProduct(ProductCreateRequest request) {
-        Product product = new Product();
-        product.setId(UUID.randomUUID());
-        product.setName(InputSanitizer.sanitize(request.name(), "Name", 100, true));
-        product.setDescription(InputSanitizer.sanitize(request.description(), "Description", 1000, false));
-        product.setPrice(request.price());
-        product.setStock(request.stock());
-        product.setCreatedAt(Instant.now());
+        return writeBatcher.execute(() -> {
+            // Product is always new here, so save() persists: one INSERT, no SELECT
+            Product savedProduct = productRepository.save(newProduct(request, Instant.now()));
+            eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), Operation.CREATED));
+            return mapToResponse(savedProduct);
+        });
+    }
+
+    @Override
+    public ProductBulkCreateResponse createProducts(List<ProductCreateRequest> requests) {
+        if (requests.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " products can be created at once");
+        }
+
+        Instant now = Instant.now();
+        List<Product> products = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                products.add(newProduct(requests.get(i), now));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("products[" + i + "]: " + e.getMessage());
+            }
+        }
 
-        Product savedProduct = productRepository.save(product);
-        return mapToResponse(savedProduct);
+        productRepository.persistAll(products, bulkFlushSize);
+        eventPublisher.publishEvent(new ProductsBulkChangedEvent(products.size()));
+        return new ProductBulkCreateResponse(products.size(), products.stream().map(Product::getId).toList());
+    }
+
+    @Override
+    @Transactional(rollbackFor = IOException.class)
+    public ProductImportResponse importProducts(InputStream csv) throws IOException {
+        ProductImportResponse response = csvImporter.importCsv(csv);
+        if (response.imported() > 0) {
+            eventPublisher.publishEvent(new ProductsBulkChangedEvent(response.imported()));
+        }
+        return response;
     }
 
     @Override
     @Transactional(readOnly = true)
     public ProductResponse getProduct(UUID id) {
-        return productRepository.findById(id)
-                .map(this::mapToResponse)
+        ProductResponse product = productRepository.findResponseById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        viewCounter.recordView(id);
+        return product;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public ProductBatchResponse getProductsByIds(List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must contain at least one id");
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException("At most " + maxBatchIds + " ids can be requested at once");
+        }
+
+        Map<UUID, ProductResponse> byId = new HashMap<>();
+        for (ProductResponse product : productRepository.findResponsesByIds(new LinkedHashSet<>(ids))) {
+            byId.put(product.id(), product);
+        }
+        List<ProductBatchItem> items = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            ProductResponse product = byId.get(id);
+            items.add(new ProductBatchItem(id, product != null, product));
+        }
+        return new ProductBatchResponse(items);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductTrendingResponse getTrendingProducts(Integer limit) {
+        int size = limit == null ? defaultTrendingSize : limit;
+        if (size < 1 || size > viewCounter.trendingCapacity()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + viewCounter.trendingCapacity());
+        }
+        List<CountMinTopK.Entry> top = viewCounter.trending();
+        // Extra candidates make up for products deleted since they were viewed
+        List<CountMinTopK.Entry> candidates = top.subList(0, Math.min(top.size(), size * 2));
+        if (candidates.isEmpty()) {
+            return new ProductTrendingResponse(List.of());
+        }
+
+        Map<UUID, ProductResponse> byId = new HashMap<>();
+        for (ProductResponse product : productRepository.findResponsesByIds(
+                candidates.stream().map(CountMinTopK.Entry::id).toList())) {
+            byId.put(product.id(), product);
+        }
+        List<ProductTrendingItem> items = new ArrayList<>(size);
+        for (CountMinTopK.Entry entry : candidates) {
+            ProductResponse product = byId.get(entry.id());
+            if (product != null && items.size() < size) {
+                items.add(new ProductTrendingItem(product, entry.estimate()));
+            }
+        }
+        return new ProductTrendingResponse(items);
     }
 
     @Override
-    public ProductResponse updateProduct(UUID id, ProductUpdateRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductCatalogSnapshot getCatalogSnapshot() {
+        return catalogSnapshotCache.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageResponse getProductPage(String cursor, Integer limit, ProductFilter filter, ProductSort sort) {
+        int pageSize = resolvePageSize(limit);
+        ProductCursor after = StringUtils.hasText(cursor) ? ProductCursor.decode(cursor, sort) : null;
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<ProductResponse> rows = productRepository.findPage(filter, sort,
+                after != null ? after.key() : null, after != null ? after.id() : null, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = ProductCursor.after(sort, page.get(page.size() - 1)).encode();
+        }
+        return new ProductPageResponse(List.copyOf(page), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchResponse searchProducts(String query, Integer page, Integer limit) {
+        String tsQuery = ProductSearchQuery.toTsQuery(query);
+        int pageSize = resolvePageSize(limit);
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+
+        long offset = (long) pageNumber * pageSize;
+        if (offset >= searchMaxCandidates) {
+            return new ProductSearchResponse(List.of(), pageNumber, false);
+        }
+
+        List<ProductResponse> rows = productRepository.search(tsQuery, (int) offset, pageSize + 1, searchMaxCandidates);
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductResponse> items = hasNext ? rows.subList(0, pageSize) : rows;
+        return new ProductSearchResponse(List.copyOf(items), pageNumber, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(Consumer<ProductResponse> consumer) {
+        productRepository.forEachProduct(exportFetchSize, consumer);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProductResponse updateProduct(UUID id, ProductUpdateRequest request, Long expectedVersion) {
+        ProductUpdateRequest values = new ProductUpdateRequest(
+                InputSanitizer.sanitize(request.name(), "Name", 100, true),
+                InputSanitizer.sanitize(request.description(), "Description", 1000, false),
+                request.price(),
+                request.stock());
+
+        return writeBatcher.execute(() -> {
+            // One UPDATE ... RETURNING; the version condition replaces a prior read
+            ProductWriteResult result = productRepository.updateReturning(id, values, expectedVersion)
+                    .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+            checkApplied(result);
+            eventPublisher.publishEvent(new ProductChangedEvent(id, Operation.UPDATED));
+            return result.product();
+        });
+    }
+
+    @Override
+    public ProductResponse patchProduct(UUID id, ProductPatchRequest request, Long expectedVersion) {
+        if (request.name() == null && request.description() == null && request.price() == null
+                && request.stock() == null) {
+            throw new IllegalArgumentException("At least one of name, description, price or stock must be given");
+        }
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        checkVersion(product, expectedVersion);
+        Long currentVersion = product.getVersion();
+        if (request.version() != null && !request.version().equals(currentVersion)) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
 
-        product.setName(InputSanitizer.sanitize(request.name(), "Name", 100, true));
-        product.setDescription(InputSanitizer.sanitize(request.description(), "Description", 1000, false));
-        product.setPrice(request.price());
-        product.setStock(request.stock());
+        List<String> changedFields = new ArrayList<>();
+        if (request.name() != null) {
+            String name = InputSanitizer.sanitize(request.name(), "Name", 100, true);
+            if (!name.equals(product.getName())) {
+                changedFields.add("name");
+            }
+            product.setName(name);
+        }
+        if (request.description() != null) {
+            String description = InputSanitizer.sanitize(request.description(), "Description", 1000, false);
+            if (!Objects.equals(description, product.getDescription())) {
+                changedFields.add("description");
+            }
+            product.setDescription(description);
+        }
+        if (request.price() != null) {
+            if (product.getPrice() == null || request.price().compareTo(product.getPrice()) != 0) {
+                changedFields.add("price");
+            }
+            product.setPrice(request.price());
+        }
+        if (request.stock() != null) {
+            if (!request.stock().equals(product.getStock())) {
+                changedFields.add("stock");
+            }
+            product.setStock(request.stock());
+        }
+
+        // Only the columns whose values actually changed are written; if none
+        // did, there is no UPDATE and the version stays the same
+        Product patchedProduct = productRepository.saveAndFlush(product);
+        if (!Objects.equals(currentVersion, patchedProduct.getVersion())) {
+            eventPublisher.publishEvent(new ProductChangedEvent(id, Operation.UPDATED, changedFields));
+        }
+        return mapToResponse(patchedProduct);
+    }
 
-        Product updatedProduct = productRepository.save(product);
-        return mapToResponse(updatedProduct);
+    @Override
+    public ProductStockResponse decrementStock(UUID id, int quantity) {
+        ProductStockResponse result = productRepository.decrementStock(id, quantity)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        if (result.applied()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(id, Operation.UPDATED, List.of("stock")));
+        }
+        return result;
     }
 
     @Override
-    public void deleteProduct(UUID id) {
-        if (!productRepository.existsById(id)) {
-            throw new ProductNotFoundException("Product not found with id: " + id);
+    public void deleteProduct(UUID id, Long expectedVersion) {
+        ProductWriteResult result = productRepository.deleteReturning(id, expectedVersion)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        checkApplied(result);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, Operation.DELETED));
+    }
+
+    private static void checkApplied(ProductWriteResult result) {
+        if (!result.applied()) {
+            throw new PreconditionFailedException(
+                    "Product has been modified; current version is " + result.product().version());
+        }
+    }
+
+    private void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException("Product has been modified; current version is " + product.getVersion());
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
         }
-        productRepository.deleteById(id);
+        return Math.min(limit, maxPageSize);
+    }
+
+    private Product newProduct(ProductCreateRequest request, Instant createdAt) {
+        Product product = new Product();
+        product.setId(UuidV7.generate());
+        product.setName(InputSanitizer.sanitize(request.name(), "Name", 100, true));
+        product.setDescription(InputSanitizer.sanitize(request.description(), "Description", 1000, false));
+        product.setPrice(request.price());
+        product.setStock(request.stock());
+        product.setCreatedAt(createdAt);
+        return product;
     }
 
     private ProductResponse mapToResponse(Product product) {
-        return new ProductResponse(
-                product.getId(),
-                product.getName(),
-                product.getDescription(),
-                product.getPrice(),
-                product.getStock(),
-                product.getCreatedAt());
+        return ProductMapper.toResponse(product);
     }
 }
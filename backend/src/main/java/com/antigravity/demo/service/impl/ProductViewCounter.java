@@ -0,0 +1,163 @@
+package com.antigravity.demo.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Counts product views without touching the database on the read path. Each
+ * product gets a {@link LongAdder}, which stripes increments across cells
+ * under contention, so recording a view of an already counted product neither
+ * allocates nor contends on a shared counter.
+ * <p>
+ * A background thread periodically drains the counters, adds them to
+ * product_stats in one batched upsert, and feeds them to a
+ * {@link CountMinTopK} that ranks trending products. Trending is therefore
+ * per node and lags by up to one flush interval.
+ */
+@Component
+class ProductViewCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductViewCounter.class);
+
+    private static final Function<UUID, LongAdder> NEW_COUNTER = id -> new LongAdder();
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int SKETCH_DEPTH = 4;
+
+    // Sorted ids keep row locks in the same order when nodes flush concurrently;
+    // the join skips products deleted since they were viewed
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_stats (product_id, view_count, updated_at)
+            SELECT v.id, v.views, now()
+            FROM unnest(?::uuid[], ?::bigint[]) AS v(id, views)
+            JOIN products p ON p.id = v.id
+            ORDER BY v.id
+            ON CONFLICT (product_id) DO UPDATE SET
+                view_count = product_stats.view_count + EXCLUDED.view_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-view-flush").daemon().factory());
+
+    @Value("${application.products.views.flush-interval:5s}")
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    @Value("${application.products.trending.capacity:100}")
+    private int trendingCapacity = 100;
+
+    @Value("${application.products.trending.half-life:10m}")
+    private Duration halfLife = Duration.ofMinutes(10);
+
+    // Only touched while holding this object's lock
+    private final Map<UUID, Long> unwritten = new HashMap<>();
+    private CountMinTopK sketch;
+    private long lastDecayNanos;
+
+    private volatile List<CountMinTopK.Entry> trending = List.of();
+
+    ProductViewCounter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void start() {
+        sketch = new CountMinTopK(SKETCH_WIDTH, SKETCH_DEPTH, trendingCapacity);
+        lastDecayNanos = System.nanoTime();
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdownNow();
+        flushQuietly();
+    }
+
+    void recordView(UUID productId) {
+        LongAdder counter = pending.get(productId);
+        if (counter == null) {
+            counter = pending.computeIfAbsent(productId, NEW_COUNTER);
+        }
+        counter.increment();
+    }
+
+    /**
+     * Trending products as of the last flush, most viewed first, with their
+     * decayed view estimates.
+     */
+    List<CountMinTopK.Entry> trending() {
+        return trending;
+    }
+
+    int trendingCapacity() {
+        return trendingCapacity;
+    }
+
+    /**
+     * Drains the counters into the trending sketch and product_stats. Counts
+     * that could not be written are kept and go out with the next flush.
+     */
+    synchronized void flush() {
+        Map<UUID, Long> drained = new HashMap<>();
+        for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count == 0) {
+                // Idle since the last flush; a view racing with the removal may be lost
+                pending.remove(entry.getKey(), entry.getValue());
+                count = entry.getValue().sumThenReset();
+            }
+            if (count > 0) {
+                drained.put(entry.getKey(), count);
+            }
+        }
+
+        long now = System.nanoTime();
+        if (now - lastDecayNanos >= halfLife.toNanos()) {
+            sketch.decay();
+            lastDecayNanos = now;
+        }
+        drained.forEach(sketch::add);
+        trending = List.copyOf(sketch.top());
+
+        drained.forEach((id, count) -> unwritten.merge(id, count, Long::sum));
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        Object[] ids = unwritten.keySet().toArray();
+        Object[] views = unwritten.values().toArray();
+        jdbcTemplate.update(UPSERT_SQL, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.setArray(2, connection.createArrayOf("bigint", views));
+        });
+        unwritten.clear();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing product view counts failed, retrying with the next flush", e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.antigravity.demo.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs single-product writes in a transaction of their own, or, with group
+ * commit enabled, together with the writes of other concurrent callers.
+ * <p>
+ * In group-commit mode a flusher thread collects writes until
+ * {@code max-batch-size} are waiting or the oldest has waited
+ * {@code max-wait}, then runs them all in one transaction: inserts go out as
+ * JDBC batches and the whole batch pays for a single commit. Callers block
+ * until their batch commits and get their own result or exception. A write
+ * failing with a business error (not found, stale version, invalid input)
+ * only fails its own caller. A database error aborts the shared transaction,
+ * so the batch is then retried one write per transaction to isolate the
+ * culprit. Writes must therefore be safe to run again after a rollback, and
+ * must not have changed anything when they throw.
+ * <p>
+ * Writes issued inside an existing transaction always run in it directly,
+ * and writes issued once the batcher has stopped run in a transaction of
+ * their own. A caller gives up after {@code timeout}, queueing included,
+ * though its write may still commit afterwards.
+ */
+@Component
+class ProductWriteBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteBatcher.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSizes;
+    private BlockingQueue<PendingWrite<?>> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @Value("${application.products.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${application.products.group-commit.max-batch-size:100}")
+    private int maxBatchSize = 100;
+
+    @Value("${application.products.group-commit.max-wait:5ms}")
+    private Duration maxWait = Duration.ofMillis(5);
+
+    @Value("${application.products.group-commit.timeout:30s}")
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /** A queued write and, once it has run, its tentative outcome. */
+    private static final class PendingWrite<T> {
+
+        private final Supplier<T> write;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long enqueuedNanos = System.nanoTime();
+        private T value;
+        private RuntimeException error;
+
+        private PendingWrite(Supplier<T> write) {
+            this.write = write;
+        }
+
+        void run() {
+            error = null;
+            value = write.get();
+        }
+
+        void fail(RuntimeException e) {
+            error = e;
+        }
+
+        // Only called once the outcome can no longer be rolled back
+        void publish() {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+
+    ProductWriteBatcher(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSizes = DistributionSummary.builder("products.group-commit.batch-size")
+                .description("Writes committed together by group commit")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // Bounded, so a burst beyond what the database keeps up with blocks callers instead of piling up
+        queue = new LinkedBlockingQueue<>(maxBatchSize * 10);
+        running = true;
+        flusher = Thread.ofPlatform().name("product-group-commit").daemon().start(this::collectBatches);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        PendingWrite<?> abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            abandoned.result.completeExceptionally(shuttingDown());
+        }
+    }
+
+    private static IllegalStateException shuttingDown() {
+        return new IllegalStateException("Application is shutting down");
+    }
+
+    /**
+     * Runs the write in a transaction and returns its result, rethrowing what
+     * it threw.
+     */
+    <T> T execute(Supplier<T> write) {
+        if (!enabled || !running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> write.get());
+        }
+        PendingWrite<T> pending = new PendingWrite<>(write);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            if (!queue.offer(pending, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Timed out queueing for group commit");
+            }
+            // Stopped while queueing: the shutdown drain may already have run, and nothing else would take it
+            if (!running && queue.remove(pending)) {
+                pending.result.completeExceptionally(shuttingDown());
+            }
+            return pending.result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void collectBatches() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // The wait is bounded from when the oldest write arrived, not from when a flush ended
+                long deadline = first.enqueuedNanos + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit failed unexpectedly", e);
+                batch.forEach(write -> write.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite<?>> batch) {
+        batchSizes.record(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(ProductWriteBatcher::runInBatch));
+        } catch (RuntimeException e) {
+            // The shared transaction rolled back, taking every write in it along
+            log.debug("Group commit of {} writes failed, retrying them one by one", batch.size(), e);
+            batch.forEach(this::flushAlone);
+            return;
+        }
+        batch.forEach(PendingWrite::publish);
+    }
+
+    private static void runInBatch(PendingWrite<?> write) {
+        try {
+            write.run();
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            // The transaction is unusable after a database error
+            throw e;
+        } catch (RuntimeException e) {
+            write.fail(e);
+        }
+    }
+
+    private void flushAlone(PendingWrite<?> write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+        } catch (RuntimeException e) {
+            write.fail(e);
+        }
+        write.publish();
+    }
+}
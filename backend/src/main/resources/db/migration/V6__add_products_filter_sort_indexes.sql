@@ -0,0 +1,9 @@
+-- Keyset orderings for the price and name sorts; id breaks ties so pages are stable
+CREATE INDEX idx_products_price_id ON products (price, id);
+CREATE INDEX idx_products_name_id ON products (name, id);
+
+-- The in-stock filter is rendered as the literal "stock > 0" so these partial
+-- indexes match it; each covers one sort order over in-stock products only
+CREATE INDEX idx_products_in_stock_created_at_id ON products (created_at DESC, id DESC) WHERE stock > 0;
+CREATE INDEX idx_products_in_stock_price_id ON products (price, id) WHERE stock > 0;
+CREATE INDEX idx_products_in_stock_name_id ON products (name, id) WHERE stock > 0;
@@ -0,0 +1,5 @@
+CREATE TABLE product_stats (
+    product_id UUID PRIMARY KEY REFERENCES products (id) ON DELETE CASCADE,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,29 @@
+-- Emails are unique regardless of case, and looked up by lower(email);
+-- this index also serves as the conflict target of the registration insert.
+-- It supersedes the case-sensitive unique constraint from V2.
+--
+-- Existing accounts whose emails differ only in case would make the index
+-- fail to build, so they are listed and the migration stops before changing
+-- anything. Merge or rename those accounts, then deploy again.
+DO $$
+DECLARE
+    conflicts text;
+BEGIN
+    SELECT string_agg(emails, '; ')
+    INTO conflicts
+    FROM (
+        SELECT string_agg(email, ', ' ORDER BY created_at, id) AS emails
+        FROM users
+        GROUP BY lower(email)
+        HAVING count(*) > 1
+    ) duplicates;
+
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Cannot make user emails case-insensitively unique; these accounts differ only in letter case: %', conflicts
+            USING HINT = 'Keep one account per group, merging or renaming the others, e.g. UPDATE users SET email = ... WHERE id = ...';
+    END IF;
+END
+$$;
+
+CREATE UNIQUE INDEX ux_users_email_lower ON users (lower(email));
+ALTER TABLE users DROP CONSTRAINT users_email_key;
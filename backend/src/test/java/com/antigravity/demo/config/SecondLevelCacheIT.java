@@ -0,0 +1,138 @@
+package com.antigravity.demo.config;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.exception.ProductNotFoundException;
+import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.repository.UserRepository;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.ProductTestData;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.cache.CacheManager;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void repeatedEntityLoadsShouldBeServedFromSecondLevelCache() {
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        CacheStats before = stats(SecondLevelCacheConfig.PRODUCTS_REGION);
+
+        productRepository.findById(created.id());
+        productRepository.findById(created.id());
+
+        CacheStats after = stats(SecondLevelCacheConfig.PRODUCTS_REGION);
+        assertTrue(after.hitCount() - before.hitCount() >= 2, "Both loads should hit the products region");
+    }
+
+    @Test
+    void repeatedProductReadsShouldBeServedFromQueryCache() {
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        productService.getProduct(created.id());
+        CacheStats before = stats(SecondLevelCacheConfig.QUERY_RESULTS_REGION);
+
+        productService.getProduct(created.id());
+        productService.getProduct(created.id());
+
+        CacheStats after = stats(SecondLevelCacheConfig.QUERY_RESULTS_REGION);
+        assertTrue(after.hitCount() - before.hitCount() >= 2, "Both reads should hit the query results region");
+    }
+
+    @Test
+    void updateAndDeleteShouldNotLeaveStaleEntriesBehind() {
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        productService.getProduct(created.id());
+
+        productService.updateProduct(created.id(), ProductTestData.updateRequest(), null);
+        ProductResponse updated = productService.getProduct(created.id());
+        assertEquals("Updated Name", updated.name());
+        assertEquals(0, new BigDecimal("149.99").compareTo(updated.price()));
+
+        productService.deleteProduct(created.id(), null);
+        assertThrows(ProductNotFoundException.class, () -> productService.getProduct(created.id()));
+    }
+
+    @Test
+    void singleStatementWritesShouldInvalidateOnlyTheProductsQuerySpace() {
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        SessionFactoryImplementor factory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+        // Stands in for a query result a concurrent reader cached before the write committed
+        long cachedAt = factory.getCache().getRegionFactory().nextTimestamp();
+
+        productService.decrementStock(created.id(), 1);
+
+        try (Session session = factory.openSession()) {
+            SharedSessionContractImplementor reader = (SharedSessionContractImplementor) session;
+            assertFalse(timestamps.isUpToDate(new String[] {"products"}, cachedAt, reader));
+            assertTrue(timestamps.isUpToDate(new String[] {"users"}, cachedAt, reader));
+        }
+        assertEquals(created.stock() - 1, productService.getProduct(created.id()).stock());
+    }
+
+    @Test
+    void findByEmailShouldSeeUserWritesMadeByOtherNodes() {
+        String email = "cache-" + UUID.randomUUID() + "@test.com";
+        assertTrue(userRepository.findByEmail(email).isEmpty());
+
+        // Written outside this node's Hibernate, as another node would
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash, role, created_at) VALUES (?, ?, 'old', 'USER', now())",
+                id, email);
+        assertEquals("old", userRepository.findByEmail(email).orElseThrow().getPasswordHash());
+
+        jdbcTemplate.update("UPDATE users SET password_hash = 'rehashed' WHERE id = ?", id);
+        assertEquals("rehashed", userRepository.findByEmail(email).orElseThrow().getPasswordHash());
+    }
+
+    @Test
+    void regionStatisticsShouldBeExportedAsMeters() {
+        assertNotNull(meterRegistry.find("cache.gets")
+                .tags("cache", SecondLevelCacheConfig.PRODUCTS_REGION, "result", "hit").functionCounter());
+        assertNotNull(meterRegistry.find("cache.evictions")
+                .tags("cache", SecondLevelCacheConfig.USERS_REGION).functionCounter());
+    }
+
+    private CacheStats stats(String region) {
+        return ((Cache<?, ?>) hibernateCacheManager.getCache(region).unwrap(Cache.class)).stats();
+    }
+}
@@ -3,7 +3,9 @@ package com.antigravity.demo.controller;
 import com.antigravity.demo.dto.AuthRequest;
 import com.antigravity.demo.dto.AuthResponse;
 import com.antigravity.demo.exception.GlobalExceptionHandler;
+import com.antigravity.demo.exception.ServiceUnavailableException;
 import com.antigravity.demo.repository.UserRepository;
+import com.antigravity.demo.security.AuthRateLimiter;
 import com.antigravity.demo.security.JwtService;
 import com.antigravity.demo.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,10 +18,13 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +45,9 @@ class AuthControllerWebMvcTest {
         @MockBean
         private JwtService jwtService;
 
+        @MockBean
+        private AuthRateLimiter authRateLimiter;
+
         @MockBean
         private UserRepository userRepository;
 
@@ -116,6 +124,23 @@ class AuthControllerWebMvcTest {
                 verify(authService, times(1)).login(any());
         }
 
+        @Test
+        void login_shouldReturn503WithRetryAfter_WhenHashingIsSaturated() throws Exception {
+                AuthRequest.LoginRequest request = new AuthRequest.LoginRequest();
+                request.setEmail("test@test.com");
+                request.setPassword("password");
+
+                when(authService.login(any(AuthRequest.LoginRequest.class)))
+                                .thenThrow(new ServiceUnavailableException("Busy", Duration.ofMillis(1500)));
+
+                mockMvc.perform(post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(header().string("Retry-After", "2"))
+                                .andExpect(jsonPath("$.status").value(503));
+        }
+
         @Test
         void register_shouldReturn400_WhenInvalidPayload() throws Exception {
                 AuthRequest.RegisterRequest request = new AuthRequest.RegisterRequest();
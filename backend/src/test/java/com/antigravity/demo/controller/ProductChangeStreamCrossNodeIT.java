@@ -0,0 +1,154 @@
+package com.antigravity.demo.controller;
+
+import com.antigravity.demo.DemoApplication;
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductPatchRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.JwtTestTokens;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subscribes to this node's change stream and writes through a second
+ * application context against the same database, as another node behind the
+ * load balancer would.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ProductChangeStreamCrossNodeIT extends PostgresTestContainerConfig {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    private ProductService otherNodeService;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void startOtherNode() {
+        if (otherNode == null) {
+            otherNode = new SpringApplicationBuilder(DemoApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run(argument("spring.datasource.url"),
+                            argument("spring.datasource.username"),
+                            argument("spring.datasource.password"),
+                            "--spring.flyway.enabled=false");
+        }
+        otherNodeService = otherNode.getBean(ProductService.class);
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        if (otherNode != null) {
+            otherNode.close();
+            otherNode = null;
+        }
+    }
+
+    @Test
+    void changesCommittedOnOtherNodeShouldReachThisNodesSubscribers() throws Exception {
+        try (BufferedReader reader = subscribe()) {
+            ProductResponse product = otherNodeService.createProduct(
+                    new ProductCreateRequest("Remote", null, BigDecimal.ONE, 1));
+            otherNodeService.patchProduct(product.id(),
+                    new ProductPatchRequest("Remote", null, new BigDecimal("2.50"), null, null), null);
+            otherNodeService.deleteProduct(product.id(), null);
+
+            JsonNode created = objectMapper.readTree(nextEvent(reader, ProductChangeStream.CHANGE));
+            assertEquals(product.id().toString(), created.get("id").asText());
+            assertEquals("CREATED", created.get("operation").asText());
+            assertEquals(ProductChangedEvent.ALL_FIELDS.size(), created.get("fields").size());
+
+            JsonNode patched = objectMapper.readTree(nextEvent(reader, ProductChangeStream.CHANGE));
+            assertEquals("UPDATED", patched.get("operation").asText());
+            assertEquals(List.of("price"), objectMapper.convertValue(patched.get("fields"), List.class));
+
+            JsonNode deleted = objectMapper.readTree(nextEvent(reader, ProductChangeStream.CHANGE));
+            assertEquals("DELETED", deleted.get("operation").asText());
+            assertEquals(0, deleted.get("fields").size());
+        }
+    }
+
+    @Test
+    void bulkChangesOnOtherNodeShouldTellSubscribersToResync() throws Exception {
+        try (BufferedReader reader = subscribe()) {
+            otherNodeService.createProducts(List.of(
+                    new ProductCreateRequest("Bulk 1", null, BigDecimal.ONE, 1),
+                    new ProductCreateRequest("Bulk 2", null, BigDecimal.ONE, 1)));
+
+            nextEvent(reader, ProductChangeStream.RESYNC);
+        }
+    }
+
+    private BufferedReader subscribe() throws Exception {
+        HttpResponse<InputStream> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/changes"))
+                        .header("Authorization", "Bearer " + JwtTestTokens.createUserToken())
+                        .header("Accept", "text/event-stream")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+        assertEquals(":subscribed", reader.readLine());
+        return reader;
+    }
+
+    /** Reads up to the next event of the given name and returns its data, failing rather than waiting forever. */
+    private static String nextEvent(BufferedReader reader, String name) {
+        return assertTimeoutPreemptively(TIMEOUT, () -> {
+            String line;
+            boolean matched = false;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("event:" + name)) {
+                    matched = true;
+                } else if (matched && line.startsWith("data:")) {
+                    return line.substring("data:".length());
+                }
+            }
+            throw new AssertionError("Stream ended before a " + name + " event");
+        }, "No " + name + " event from the other node");
+    }
+
+    private String argument(String name) {
+        return "--" + name + "=" + environment.getProperty(name);
+    }
+}
@@ -0,0 +1,187 @@
+package com.antigravity.demo.controller;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductPatchRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.exception.PreconditionFailedException;
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductChangedEvent.Operation;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.JwtTestTokens;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subscribes to the change stream over real HTTP, since buffering and
+ * backpressure only show up on a real connection.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "application.products.changes.buffer-size=16")
+@ActiveProfiles("test")
+class ProductChangeStreamIT extends PostgresTestContainerConfig {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeStream changeStream;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Without a version the client tries to upgrade each new connection to HTTP/2, which Tomcat does not offer here
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private HttpRequest subscription(String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/changes"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .build();
+    }
+
+    private BufferedReader subscribe() throws Exception {
+        HttpResponse<InputStream> response = client.send(subscription(JwtTestTokens.createUserToken()),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+        assertEquals(":subscribed", reader.readLine());
+        return reader;
+    }
+
+    /** Reads up to the next event of the given name and returns its data. */
+    private static String nextEvent(BufferedReader reader, String name) throws Exception {
+        String line;
+        boolean matched = false;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals("event:" + name)) {
+                matched = true;
+            } else if (matched && line.startsWith("data:")) {
+                return line.substring("data:".length());
+            }
+        }
+        throw new AssertionError("Stream ended before a " + name + " event");
+    }
+
+    @Test
+    void subscribersShouldReceiveCommittedChangesWithChangedFields() throws Exception {
+        try (BufferedReader reader = subscribe()) {
+            ProductResponse product = productService.createProduct(
+                    new ProductCreateRequest("Streamed", null, BigDecimal.ONE, 1));
+            assertThrows(PreconditionFailedException.class, () -> productService.updateProduct(product.id(),
+                    new ProductUpdateRequest("Stale", null, BigDecimal.ONE, 1), product.version() + 1));
+            productService.patchProduct(product.id(),
+                    new ProductPatchRequest("Streamed", null, new BigDecimal("2.50"), null, null), null);
+            productService.deleteProduct(product.id(), null);
+
+            JsonNode created = objectMapper.readTree(nextEvent(reader, ProductChangeStream.CHANGE));
+            assertEquals(product.id().toString(), created.get("id").asText());
+            assertEquals("CREATED", created.get("operation").asText());
+            assertEquals(ProductChangedEvent.ALL_FIELDS.size(), created.get("fields").size());
+
+            // The rolled back update sent nothing; the patch only changed the price
+            JsonNode patched = objectMapper.readTree(nextEvent(reader, ProductChangeStream.CHANGE));
+            assertEquals("UPDATED", patched.get("operation").asText());
+            assertEquals(List.of("price"), objectMapper.convertValue(patched.get("fields"), List.class));
+
+            JsonNode deleted = objectMapper.readTree(nextEvent(reader, ProductChangeStream.CHANGE));
+            assertEquals("DELETED", deleted.get("operation").asText());
+            assertEquals(0, deleted.get("fields").size());
+        }
+    }
+
+    @Test
+    void slowSubscriberShouldBeToldToResyncInsteadOfBuffering() throws Exception {
+        double resyncsBefore = meterRegistry.get("products.changes.resyncs").counter().count();
+        try (BufferedReader reader = subscribe()) {
+            // Far more than the socket buffers hold while the client is not reading
+            for (int i = 0; i < 200_000; i++) {
+                changeStream.onProductChanged(new ProductChangedEvent(UUID.randomUUID(), Operation.UPDATED));
+            }
+            assertTrue(meterRegistry.get("products.changes.resyncs").counter().count() > resyncsBefore);
+
+            nextEvent(reader, ProductChangeStream.RESYNC);
+            changeStream.onProductChanged(new ProductChangedEvent(UUID.randomUUID(), Operation.DELETED));
+            String line;
+            while ((line = reader.readLine()) != null && !line.contains("DELETED")) {
+                // Catch up to the event sent after the overflow
+            }
+            assertNotNull(line, "Stream should stay usable after a resync");
+        }
+    }
+
+    @Test
+    void idleSubscribersShouldNotTieUpRequestThreads() throws Exception {
+        // Comfortably more than Tomcat's 200 worker threads
+        int idle = 500;
+        List<CompletableFuture<HttpResponse<InputStream>>> subscriptions = new ArrayList<>();
+        for (int i = 0; i < idle; i++) {
+            subscriptions.add(client.sendAsync(subscription(JwtTestTokens.createUserToken()),
+                    HttpResponse.BodyHandlers.ofInputStream()));
+        }
+        try {
+            // One deadline for all, since the connects queue up behind each other
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            for (CompletableFuture<HttpResponse<InputStream>> subscription : subscriptions) {
+                assertEquals(200, subscription.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS).statusCode());
+            }
+            // Streams closed by earlier tests may still be counted until their next send fails
+            assertTrue(changeStream.subscriberCount() >= idle, String.valueOf(changeStream.subscriberCount()));
+
+            // More open streams than Tomcat has worker threads, yet requests are still served
+            HttpResponse<String> health = client.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/api/products/trending"))
+                    .header("Authorization", "Bearer " + JwtTestTokens.createUserToken())
+                    .timeout(Duration.ofSeconds(5))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, health.statusCode());
+        } finally {
+            for (CompletableFuture<HttpResponse<InputStream>> subscription : subscriptions) {
+                // A stream that never opened is abandoned rather than waited for
+                subscription.cancel(true);
+                if (!subscription.isCompletedExceptionally()) {
+                    subscription.join().body().close();
+                }
+            }
+        }
+    }
+
+    @Test
+    void unauthenticatedSubscriptionShouldBeRejected() throws Exception {
+        HttpResponse<Void> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/changes")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(401, response.statusCode());
+    }
+}
@@ -0,0 +1,122 @@
+package com.antigravity.demo.controller;
+
+import com.antigravity.demo.testsupport.JwtTestTokens;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.ProductTestData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductConditionalRequestIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String adminToken;
+    private String productId;
+
+    @BeforeEach
+    void createProduct() throws Exception {
+        adminToken = "Bearer " + JwtTestTokens.createAdminToken();
+        String body = mockMvc.perform(post("/api/products")
+                .header("Authorization", adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ProductTestData.createRequest())))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+        productId = objectMapper.readTree(body).get("id").asText();
+    }
+
+    @Test
+    void getShouldRevalidateAgainstVersionETag() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", productId).header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(jsonPath("$.version").value(0));
+
+        mockMvc.perform(get("/api/products/{id}", productId)
+                .header("Authorization", adminToken)
+                .header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateShouldBumpVersionAndRejectStaleIfMatch() throws Exception {
+        String update = objectMapper.writeValueAsString(ProductTestData.updateRequest());
+
+        mockMvc.perform(put("/api/products/{id}", productId)
+                .header("Authorization", adminToken)
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(update))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/api/products/{id}", productId)
+                .header("Authorization", adminToken)
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(update))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/products/{id}", productId)
+                .header("Authorization", adminToken)
+                .header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    void deleteShouldHonorIfMatch() throws Exception {
+        mockMvc.perform(delete("/api/products/{id}", productId)
+                .header("Authorization", adminToken)
+                .header("If-Match", "\"3\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/products/{id}", productId)
+                .header("Authorization", adminToken)
+                .header("If-Match", "\"0\""))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products/{id}", productId).header("Authorization", adminToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listShouldReturn304WhileCatalogIsUnchanged() throws Exception {
+        String etag = mockMvc.perform(get("/api/products").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products")
+                .header("Authorization", adminToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        String gzipEtag = mockMvc.perform(get("/api/products")
+                .header("Authorization", adminToken)
+                .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertEquals(etag.replaceAll("\"$", "-gzip\""), gzipEtag);
+    }
+}
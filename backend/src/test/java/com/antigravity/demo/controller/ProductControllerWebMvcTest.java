@@ -2,9 +2,15 @@ package com.antigravity.demo.controller;
 
 import com.antigravity.demo.dto.ProductDTOs.*;
 import com.antigravity.demo.exception.GlobalExceptionHandler;
+import com.antigravity.demo.exception.PreconditionFailedException;
 import com.antigravity.demo.exception.ProductNotFoundException;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.security.AuthRateLimiter;
 import com.antigravity.demo.security.JwtService;
+import com.antigravity.demo.repository.ProductFilter;
+import com.antigravity.demo.repository.ProductSort;
 import com.antigravity.demo.repository.UserRepository;
+import com.antigravity.demo.service.ProductCatalogSnapshot;
 import com.antigravity.demo.service.ProductService;
 import com.antigravity.demo.testsupport.ProductTestData;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,12 +21,28 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,39 +64,268 @@ class ProductControllerWebMvcTest {
         @MockBean
         private JwtService jwtService;
 
+        @MockBean
+        private AuthRateLimiter authRateLimiter;
+
         @MockBean
         private UserRepository userRepository;
 
+        @MockBean
+        private ProductChangeStream changeStream;
+
         @Test
         void getAllProducts_shouldReturnList() throws Exception {
-                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null);
-                ProductResponse p2 = new ProductResponse(UUID.randomUUID(), "P2", "D2", null, null, null);
-                when(productService.getAllProducts()).thenReturn(Arrays.asList(p1, p2));
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null, 0L);
+                ProductResponse p2 = new ProductResponse(UUID.randomUUID(), "P2", "D2", null, null, null, 0L);
+                when(productService.getCatalogSnapshot()).thenReturn(snapshotOf(p1, p2));
 
                 mockMvc.perform(get("/api/products"))
                                 .andExpect(status().isOk())
                                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andExpect(header().doesNotExist("Content-Encoding"))
+                                .andExpect(header().string("ETag", "\"v1\""))
                                 .andExpect(jsonPath("$.length()").value(2))
                                 .andExpect(jsonPath("$[0].name").value("P1"))
                                 .andExpect(jsonPath("$[1].name").value("P2"));
 
-                verify(productService, times(1)).getAllProducts();
+                verify(productService, times(1)).getCatalogSnapshot();
+        }
+
+        @Test
+        void getAllProducts_shouldServeGzipVariant_WhenClientAcceptsGzip() throws Exception {
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null, 0L);
+                ProductCatalogSnapshot snapshot = snapshotOf(p1);
+                when(productService.getCatalogSnapshot()).thenReturn(snapshot);
+
+                byte[] body = mockMvc.perform(get("/api/products").header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andExpect(header().string("ETag", "\"v1-gzip\""))
+                                .andExpect(header().string("Vary", "Accept-Encoding"))
+                                .andReturn().getResponse().getContentAsByteArray();
+
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                        assertArrayEquals(snapshot.json(), in.readAllBytes());
+                }
+        }
+
+        @Test
+        void getAllProducts_shouldPreferExplicitGzipOverWildcard() throws Exception {
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null, 0L);
+                when(productService.getCatalogSnapshot()).thenReturn(snapshotOf(p1));
+
+                mockMvc.perform(get("/api/products").header("Accept-Encoding", "*;q=0, gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"));
+
+                mockMvc.perform(get("/api/products").header("Accept-Encoding", "gzip;q=0, *"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("Content-Encoding"));
+        }
+
+        @Test
+        void getAllProducts_shouldReturn304_WhenCatalogUnchanged() throws Exception {
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null, 0L);
+                when(productService.getCatalogSnapshot()).thenReturn(snapshotOf(p1));
+
+                mockMvc.perform(get("/api/products").header("If-None-Match", "\"v1\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().string(""));
+        }
+
+        @Test
+        void getProductsByIds_shouldReturnItemsWithMissingMarkers() throws Exception {
+                UUID foundId = UUID.randomUUID();
+                UUID missingId = UUID.randomUUID();
+                ProductResponse p1 = new ProductResponse(foundId, "P1", "D1", null, null, null, 0L);
+                when(productService.getProductsByIds(List.of(foundId, missingId)))
+                                .thenReturn(new ProductBatchResponse(List.of(
+                                                new ProductBatchItem(foundId, true, p1),
+                                                new ProductBatchItem(missingId, false, null))));
+
+                mockMvc.perform(get("/api/products/batch").param("ids", foundId + "," + missingId))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].found").value(true))
+                                .andExpect(jsonPath("$.items[0].product.name").value("P1"))
+                                .andExpect(jsonPath("$.items[1].id").value(missingId.toString()))
+                                .andExpect(jsonPath("$.items[1].found").value(false));
+        }
+
+        @Test
+        void getProductsByIds_shouldReturn400_WhenIdMalformed() throws Exception {
+                mockMvc.perform(get("/api/products/batch").param("ids", UUID.randomUUID() + ",nope"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid value for parameter: ids"));
+
+                verifyNoInteractions(productService);
+        }
+
+        @Test
+        void getProductPage_shouldReturnItemsAndNextCursor() throws Exception {
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null, 0L);
+                when(productService.getProductPage("abc", 1, ProductFilter.NONE, ProductSort.NEWEST))
+                                .thenReturn(new ProductPageResponse(List.of(p1), "next"));
+
+                mockMvc.perform(get("/api/products/page").param("cursor", "abc").param("limit", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.items[0].name").value("P1"))
+                                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+                verify(productService, times(1)).getProductPage("abc", 1, ProductFilter.NONE, ProductSort.NEWEST);
+        }
+
+        @Test
+        void getProductPage_shouldReturn400_WhenCursorInvalid() throws Exception {
+                when(productService.getProductPage("bad", null, ProductFilter.NONE, ProductSort.NEWEST))
+                                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+                mockMvc.perform(get("/api/products/page").param("cursor", "bad"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+        }
+
+        @Test
+        void getProductPage_shouldPassFiltersAndSort() throws Exception {
+                ProductFilter filter = new ProductFilter(new BigDecimal("5"), new BigDecimal("50.00"), true,
+                                Instant.parse("2024-01-01T00:00:00Z"));
+                when(productService.getProductPage(null, null, filter, ProductSort.PRICE_DESC))
+                                .thenReturn(new ProductPageResponse(List.of(), null));
+
+                mockMvc.perform(get("/api/products/page")
+                                .param("minPrice", "5")
+                                .param("maxPrice", "50.00")
+                                .param("inStock", "true")
+                                .param("createdAfter", "2024-01-01T00:00:00Z")
+                                .param("sort", "price_desc"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(0));
+
+                verify(productService, times(1)).getProductPage(null, null, filter, ProductSort.PRICE_DESC);
+        }
+
+        @Test
+        void getProductPage_shouldReturn400_WhenSortUnknown() throws Exception {
+                mockMvc.perform(get("/api/products/page").param("sort", "popularity"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value(
+                                                "sort must be one of: newest, price_asc, price_desc, name_asc, name_desc"));
+
+                verifyNoInteractions(productService);
+        }
+
+        @Test
+        void getProductPage_shouldReturn400_WhenPriceRangeInverted() throws Exception {
+                mockMvc.perform(get("/api/products/page").param("minPrice", "10").param("maxPrice", "5"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("minPrice must not be greater than maxPrice"));
+        }
+
+        @Test
+        void getProductPage_shouldReturn400_WhenFilterValueMalformed() throws Exception {
+                mockMvc.perform(get("/api/products/page").param("createdAfter", "yesterday"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid value for parameter: createdAfter"));
+        }
+
+        @Test
+        void searchProducts_shouldReturnRankedMatches() throws Exception {
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "Wireless Keyboard", "D1", null, null, null, 0L);
+                when(productService.searchProducts("wire key", 0, 10))
+                                .thenReturn(new ProductSearchResponse(List.of(p1), 0, true));
+
+                mockMvc.perform(get("/api/products/search").param("q", "wire key").param("page", "0").param("limit", "10"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].name").value("Wireless Keyboard"))
+                                .andExpect(jsonPath("$.page").value(0))
+                                .andExpect(jsonPath("$.hasNext").value(true));
+        }
+
+        @Test
+        void searchProducts_shouldReturn400_WhenQueryMissing() throws Exception {
+                mockMvc.perform(get("/api/products/search"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Missing required parameter: q"));
+
+                verify(productService, never()).searchProducts(any(), any(), any());
+        }
+
+        @Test
+        void getTrendingProducts_shouldReturnRankedItems() throws Exception {
+                ProductResponse product = new ProductResponse(UUID.randomUUID(), "P1", "D1", BigDecimal.ONE, 1, Instant.now(), 0L);
+                when(productService.getTrendingProducts(5))
+                                .thenReturn(new ProductTrendingResponse(List.of(new ProductTrendingItem(product, 42))));
+
+                mockMvc.perform(get("/api/products/trending").param("limit", "5"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].product.name").value("P1"))
+                                .andExpect(jsonPath("$.items[0].views").value(42));
+        }
+
+        @Test
+        void streamProductChanges_shouldStartEventStream() throws Exception {
+                when(changeStream.subscribe()).thenReturn(new SseEmitter());
+
+                mockMvc.perform(get("/api/products/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                                .andExpect(request().asyncStarted());
+                verify(changeStream).subscribe();
+        }
+
+        @Test
+        void exportProducts_shouldStreamOneJsonDocumentPerLine() throws Exception {
+                ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "P1", "D1", null, null, null, 0L);
+                ProductResponse p2 = new ProductResponse(UUID.randomUUID(), "P2", "D2", null, null, null, 0L);
+                doAnswer(invocation -> {
+                        Consumer<ProductResponse> consumer = invocation.getArgument(0);
+                        consumer.accept(p1);
+                        consumer.accept(p2);
+                        return null;
+                }).when(productService).exportProducts(any());
+
+                MvcResult result = mockMvc.perform(get("/api/products/export"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                String body = mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/x-ndjson"))
+                                .andReturn().getResponse().getContentAsString();
+
+                String[] lines = body.split("\n");
+                assertEquals(2, lines.length);
+                assertEquals("P1", objectMapper.readTree(lines[0]).get("name").asText());
+                assertEquals("P2", objectMapper.readTree(lines[1]).get("name").asText());
         }
 
         @Test
         void getProduct_shouldReturnProduct_WhenExists() throws Exception {
                 UUID id = UUID.randomUUID();
-                ProductResponse response = new ProductResponse(id, "Test", "Desc", null, null, null);
+                ProductResponse response = new ProductResponse(id, "Test", "Desc", null, null, null, 3L);
                 when(productService.getProduct(id)).thenReturn(response);
 
                 mockMvc.perform(get("/api/products/{id}", id))
                                 .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"3\""))
                                 .andExpect(jsonPath("$.id").value(id.toString()))
-                                .andExpect(jsonPath("$.name").value("Test"));
+                                .andExpect(jsonPath("$.name").value("Test"))
+                                .andExpect(jsonPath("$.version").value(3));
 
                 verify(productService, times(1)).getProduct(id);
         }
 
+        @Test
+        void getProduct_shouldReturn304_WhenETagMatches() throws Exception {
+                UUID id = UUID.randomUUID();
+                ProductResponse response = new ProductResponse(id, "Test", "Desc", null, null, null, 3L);
+                when(productService.getProduct(id)).thenReturn(response);
+
+                mockMvc.perform(get("/api/products/{id}", id).header("If-None-Match", "\"3\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", "\"3\""))
+                                .andExpect(content().string(""));
+        }
+
         @Test
         void getProduct_shouldReturn404_WhenNotFound() throws Exception {
                 UUID id = UUID.randomUUID();
@@ -92,33 +343,111 @@ class ProductControllerWebMvcTest {
         void createProduct_shouldReturn201() throws Exception {
                 ProductCreateRequest request = ProductTestData.createRequest();
                 ProductResponse response = new ProductResponse(UUID.randomUUID(), request.name(), request.description(),
-                                request.price(), request.stock(), null);
+                                request.price(), request.stock(), null, 0L);
                 when(productService.createProduct(any(ProductCreateRequest.class))).thenReturn(response);
 
                 mockMvc.perform(post("/api/products")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
                                 .andExpect(status().isCreated())
+                                .andExpect(header().string("ETag", "\"0\""))
                                 .andExpect(jsonPath("$.name").value(request.name()));
 
                 verify(productService, times(1)).createProduct(any(ProductCreateRequest.class));
         }
 
+        @Test
+        void createProducts_shouldReturn201WithCreatedIds() throws Exception {
+                ProductBulkCreateRequest request = new ProductBulkCreateRequest(
+                                List.of(ProductTestData.createRequest(), ProductTestData.createRequest()));
+                List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+                when(productService.createProducts(request.products()))
+                                .thenReturn(new ProductBulkCreateResponse(2, ids));
+
+                mockMvc.perform(post("/api/products/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.created").value(2))
+                                .andExpect(jsonPath("$.ids[1]").value(ids.get(1).toString()));
+        }
+
+        @Test
+        void createProducts_shouldReturn400WithIndexedFieldErrors_WhenAnyProductInvalid() throws Exception {
+                ProductBulkCreateRequest request = new ProductBulkCreateRequest(List.of(
+                                ProductTestData.createRequest(),
+                                new ProductCreateRequest("Valid name", "Desc", null, 1)));
+
+                mockMvc.perform(post("/api/products/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.fieldErrors.length()").value(1))
+                                .andExpect(jsonPath("$.fieldErrors[0].field").value("products[1].price"));
+
+                verify(productService, never()).createProducts(any());
+        }
+
         @Test
         void updateProduct_shouldReturn200() throws Exception {
                 UUID id = UUID.randomUUID();
                 ProductUpdateRequest request = ProductTestData.updateRequest();
                 ProductResponse response = new ProductResponse(id, request.name(), request.description(),
-                                request.price(), request.stock(), null);
-                when(productService.updateProduct(eq(id), any(ProductUpdateRequest.class))).thenReturn(response);
+                                request.price(), request.stock(), null, 1L);
+                when(productService.updateProduct(eq(id), any(ProductUpdateRequest.class), isNull())).thenReturn(response);
 
                 mockMvc.perform(put("/api/products/{id}", id)
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
                                 .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"1\""))
                                 .andExpect(jsonPath("$.name").value(request.name()));
 
-                verify(productService, times(1)).updateProduct(eq(id), any(ProductUpdateRequest.class));
+                verify(productService, times(1)).updateProduct(eq(id), any(ProductUpdateRequest.class), isNull());
+        }
+
+        @Test
+        void updateProduct_shouldPassIfMatchVersionToService() throws Exception {
+                UUID id = UUID.randomUUID();
+                ProductUpdateRequest request = ProductTestData.updateRequest();
+                ProductResponse response = new ProductResponse(id, request.name(), request.description(),
+                                request.price(), request.stock(), null, 5L);
+                when(productService.updateProduct(eq(id), any(ProductUpdateRequest.class), eq(4L))).thenReturn(response);
+
+                mockMvc.perform(put("/api/products/{id}", id)
+                                .header("If-Match", "\"4\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"5\""));
+        }
+
+        @Test
+        void updateProduct_shouldReturn412_WhenVersionIsStale() throws Exception {
+                UUID id = UUID.randomUUID();
+                ProductUpdateRequest request = ProductTestData.updateRequest();
+                when(productService.updateProduct(eq(id), any(ProductUpdateRequest.class), eq(4L)))
+                                .thenThrow(new PreconditionFailedException("Product has been modified; current version is 5"));
+
+                mockMvc.perform(put("/api/products/{id}", id)
+                                .header("If-Match", "\"4\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isPreconditionFailed())
+                                .andExpect(jsonPath("$.status").value(412));
+        }
+
+        @Test
+        void updateProduct_shouldReturn412_WhenIfMatchIsWeak() throws Exception {
+                UUID id = UUID.randomUUID();
+
+                mockMvc.perform(put("/api/products/{id}", id)
+                                .header("If-Match", "W/\"4\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(ProductTestData.updateRequest())))
+                                .andExpect(status().isPreconditionFailed());
+
+                verify(productService, never()).updateProduct(any(), any(), any());
         }
 
         @Test
@@ -150,17 +479,113 @@ class ProductControllerWebMvcTest {
                                 .andExpect(jsonPath("$.message").value("Validation failed"))
                                 .andExpect(jsonPath("$.fieldErrors").isArray());
 
-                verify(productService, never()).updateProduct(any(), any());
+                verify(productService, never()).updateProduct(any(), any(), any());
+        }
+
+        @Test
+        void patchProduct_shouldReturn200WithETag() throws Exception {
+                UUID id = UUID.randomUUID();
+                ProductResponse response = new ProductResponse(id, "P1", "D1", new BigDecimal("9.99"), 5, Instant.now(), 4L);
+                when(productService.patchProduct(eq(id), any(ProductPatchRequest.class), isNull())).thenReturn(response);
+
+                mockMvc.perform(patch("/api/products/{id}", id)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"price\":9.99}"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"4\""))
+                                .andExpect(jsonPath("$.price").value(9.99));
+
+                verify(productService).patchProduct(id, new ProductPatchRequest(null, null, new BigDecimal("9.99"), null, null), null);
+        }
+
+        @Test
+        void patchProduct_shouldReturn409_WhenVersionIsStale() throws Exception {
+                UUID id = UUID.randomUUID();
+                when(productService.patchProduct(eq(id), any(ProductPatchRequest.class), isNull()))
+                                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, id));
+
+                mockMvc.perform(patch("/api/products/{id}", id)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"price\":9.99,\"version\":1}"))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.message").value("Resource was modified concurrently"));
+        }
+
+        @Test
+        void patchProduct_shouldReturn400_WhenFieldInvalid() throws Exception {
+                mockMvc.perform(patch("/api/products/{id}", UUID.randomUUID())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"price\":-1}"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.fieldErrors[0].field").value("price"));
+
+                verify(productService, never()).patchProduct(any(), any(), any());
+        }
+
+        @Test
+        void decrementStock_shouldReturn200WithRemainingStock() throws Exception {
+                UUID id = UUID.randomUUID();
+                when(productService.decrementStock(id, 2)).thenReturn(new ProductStockResponse(id, true, 8));
+
+                mockMvc.perform(post("/api/products/{id}/stock/decrement", id)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantity\":2}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.applied").value(true))
+                                .andExpect(jsonPath("$.stock").value(8));
+        }
+
+        @Test
+        void decrementStock_shouldReturn409_WhenStockInsufficient() throws Exception {
+                UUID id = UUID.randomUUID();
+                when(productService.decrementStock(id, 5)).thenReturn(new ProductStockResponse(id, false, 1));
+
+                mockMvc.perform(post("/api/products/{id}/stock/decrement", id)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantity\":5}"))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.applied").value(false))
+                                .andExpect(jsonPath("$.stock").value(1));
+        }
+
+        @Test
+        void decrementStock_shouldReturn400_WhenQuantityNotPositive() throws Exception {
+                mockMvc.perform(post("/api/products/{id}/stock/decrement", UUID.randomUUID())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantity\":0}"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.fieldErrors[0].field").value("quantity"));
+
+                verify(productService, never()).decrementStock(any(), anyInt());
         }
 
         @Test
         void deleteProduct_shouldReturn204() throws Exception {
                 UUID id = UUID.randomUUID();
-                doNothing().when(productService).deleteProduct(id);
+                doNothing().when(productService).deleteProduct(id, null);
 
                 mockMvc.perform(delete("/api/products/{id}", id))
                                 .andExpect(status().isNoContent());
 
-                verify(productService, times(1)).deleteProduct(id);
+                verify(productService, times(1)).deleteProduct(id, null);
+        }
+
+        @Test
+        void deleteProduct_shouldPassIfMatchVersionToService() throws Exception {
+                UUID id = UUID.randomUUID();
+
+                mockMvc.perform(delete("/api/products/{id}", id).header("If-Match", "\"7\""))
+                                .andExpect(status().isNoContent());
+
+                verify(productService, times(1)).deleteProduct(id, 7L);
+        }
+
+        private ProductCatalogSnapshot snapshotOf(ProductResponse... products) throws Exception {
+                byte[] json = objectMapper.writeValueAsBytes(Arrays.asList(products));
+                ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+                try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                        out.write(json);
+                }
+                return new ProductCatalogSnapshot(json, gzipped.toByteArray(), products.length, "v1");
         }
 }
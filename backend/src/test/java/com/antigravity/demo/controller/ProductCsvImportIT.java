@@ -0,0 +1,135 @@
+package com.antigravity.demo.controller;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.JwtTestTokens;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.ProductTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductCsvImportIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        adminToken = "Bearer " + JwtTestTokens.createAdminToken();
+    }
+
+    private ResultActions importCsv(String csv) throws Exception {
+        return mockMvc.perform(post("/api/products/import")
+                .header("Authorization", adminToken)
+                .contentType("text/csv")
+                .content(csv));
+    }
+
+    @Test
+    void importShouldLoadValidRowsAndReportInvalidOnesByLine() throws Exception {
+        String csv = """
+                name,description,price,stock
+                Keyboard,"Mechanical, 87 keys",49.90,10
+                ,Missing name,1.00,1
+                Mouse,,12.50,abc
+                "Cable
+                with newline",USB-C,5,100
+                Monitor,<script>alert(1)</script>,199,2
+                Lamp,Desk,-1,3
+                Extra,field,1,1,1
+                """;
+
+        importCsv(csv)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(7))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(5))
+                .andExpect(jsonPath("$.errorsTruncated").value(false))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message", startsWith("name: ")))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("stock: not a valid integer"))
+                .andExpect(jsonPath("$.errors[2].line").value(7))
+                .andExpect(jsonPath("$.errors[2].message").value("Description contains invalid characters (HTML tags not allowed)"))
+                .andExpect(jsonPath("$.errors[3].line").value(8))
+                .andExpect(jsonPath("$.errors[4].line").value(9))
+                .andExpect(jsonPath("$.errors[4].message").value("Expected 4 fields but found 5"));
+
+        assertEquals(2, productRepository.count());
+        assertEquals("Cable\nwith newline", productRepository.findAll().stream()
+                .filter(product -> product.getPrice().compareTo(new BigDecimal("5")) == 0)
+                .findFirst().orElseThrow().getName());
+    }
+
+    @Test
+    void importShouldUpsertByIdWithLastRowWinning() throws Exception {
+        ProductResponse existing = productService.createProduct(ProductTestData.createRequest());
+        // Loads the product into the second-level cache, which the import must evict
+        productService.getProduct(existing.id());
+
+        String csv = "id,name,price,stock\n"
+                + existing.id() + ",Renamed,10.00,5\n"
+                + existing.id() + ",Renamed again,11.00,6\n";
+
+        importCsv(csv)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+
+        ProductResponse updated = productService.getProduct(existing.id());
+        assertEquals("Renamed again", updated.name());
+        assertEquals(0, new BigDecimal("11.00").compareTo(updated.price()));
+        assertEquals(6, updated.stock());
+        assertEquals(existing.version() + 1, updated.version());
+        assertEquals(1, productRepository.count());
+    }
+
+    @Test
+    void importShouldRejectUnknownOrMissingColumns() throws Exception {
+        importCsv("name,price,colour\nKeyboard,1,red\n")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown CSV column: colour"));
+
+        importCsv("name,price\nKeyboard,1\n")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Missing required CSV column: stock"));
+
+        assertEquals(0, productRepository.count());
+    }
+
+    @Test
+    void importShouldRequireAdmin() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                .header("Authorization", "Bearer " + JwtTestTokens.createUserToken())
+                .contentType("text/csv")
+                .content("name,price,stock\nKeyboard,1,1\n"))
+                .andExpect(status().isForbidden());
+    }
+}
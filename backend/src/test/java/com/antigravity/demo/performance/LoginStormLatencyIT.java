@@ -0,0 +1,165 @@
+package com.antigravity.demo.performance;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.model.Role;
+import com.antigravity.demo.model.User;
+import com.antigravity.demo.repository.UserRepository;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.JwtTestTokens;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads a product over real HTTP, first on an idle server and then while
+ * many clients log in as fast as they can, backing off as told when
+ * refused. Hashing is confined to its own pool and logins beyond its queue
+ * are refused with 503, so reads keep their latency. Results are printed,
+ * e.g. on a single-core VM:
+ *
+ * <pre>
+ * idle                p50   7.7 ms   p99  21.0 ms
+ * login storm         p50  11.8 ms   p99  74.3 ms
+ * logins during storm: 49 accepted, 218 refused with 503
+ * </pre>
+ *
+ * With hashing effectively unbounded (threads=200), as when it ran on
+ * request threads, the same storm took reads to p50 285.8 ms and
+ * p99 1121.5 ms.
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // Printing every statement would dominate the timings
+        "spring.jpa.show-sql=false",
+        "logging.level.com.antigravity=INFO",
+        // The storm comes from one address and one account; this measures hashing, not the limiter
+        "application.security.rate-limit.enabled=false"})
+@ActiveProfiles("test")
+class LoginStormLatencyIT extends PostgresTestContainerConfig {
+
+    private static final int LOGIN_CLIENTS = 64;
+    private static final int WARMUP = 200;
+    private static final int READS = 500;
+    private static final String LOGIN_BODY = "{\"email\":\"storm@example.com\",\"password\":\"password\"}";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void productReadsShouldStayFastDuringLoginStorm() throws Exception {
+        if (userRepository.findByEmail("storm@example.com").isEmpty()) {
+            User user = new User();
+            user.setEmail("storm@example.com");
+            user.setPasswordHash(passwordEncoder.encode("password"));
+            user.setRole(Role.USER);
+            userRepository.save(user);
+        }
+        ProductResponse product = productService.createProduct(
+                new ProductCreateRequest("Storm", null, BigDecimal.ONE, 1));
+        HttpRequest read = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/" + product.id()))
+                .header("Authorization", "Bearer " + JwtTestTokens.createUserToken())
+                .build();
+
+        measure("warm-up", read, WARMUP);
+        double[] idle = measure("idle", read, READS);
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        ExecutorService loggers = Executors.newFixedThreadPool(LOGIN_CLIENTS);
+        double[] storm;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < LOGIN_CLIENTS; i++) {
+                futures.add(loggers.submit(() -> {
+                    HttpRequest login = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + "/api/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+                            .build();
+                    while (storming.get()) {
+                        HttpResponse<Void> response = client.send(login, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            accepted.incrementAndGet();
+                        } else if (response.statusCode() == 503) {
+                            refused.incrementAndGet();
+                            // As a well-behaved client does
+                            long retryAfter = Long.parseLong(response.headers().firstValue("Retry-After").orElseThrow());
+                            Thread.sleep(retryAfter * 1_000);
+                        } else {
+                            fail("Unexpected login status " + response.statusCode());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // Lets the storm build up before reads are timed
+            while (refused.get() == 0) {
+                Thread.sleep(10);
+            }
+            storm = measure("login storm", read, READS);
+            storming.set(false);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            storming.set(false);
+            loggers.shutdownNow();
+        }
+        System.out.printf("logins during storm: %,d accepted, %,d refused with 503%n", accepted.get(), refused.get());
+
+        assertTrue(accepted.get() > 0, "Some logins should still succeed");
+        // Hashing still takes its share of the CPU, but reads do not queue behind it
+        assertTrue(storm[0] < idle[0] * 3 + 5, "p50 " + storm[0] + " ms vs " + idle[0] + " ms idle");
+        assertTrue(storm[1] < idle[1] * 5 + 50, "p99 " + storm[1] + " ms vs " + idle[1] + " ms idle");
+    }
+
+    /** Returns the p50 and p99 read latency in milliseconds. */
+    private double[] measure(String label, HttpRequest read, int count) throws Exception {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(read, HttpResponse.BodyHandlers.ofString());
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(200, response.statusCode(), response.body());
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[count / 2] / 1_000_000.0;
+        double p99 = nanos[count * 99 / 100] / 1_000_000.0;
+        System.out.printf("%-18s  p50 %5.1f ms   p99 %5.1f ms%n", label, p50, p99);
+        return new double[] {p50, p99};
+    }
+}
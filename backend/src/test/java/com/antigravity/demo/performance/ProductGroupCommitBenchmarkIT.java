@@ -0,0 +1,151 @@
+package com.antigravity.demo.performance;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same create-then-update workload from many threads with and
+ * without group commit. The baseline wraps each write in a transaction of
+ * its own, which bypasses the batcher. Results are printed, e.g. on a
+ * single-core VM shared with the database:
+ *
+ * <pre>
+ * one commit per write  12,800 writes      539 writes/s  p99 1302.4 ms
+ * group commit          12,800 writes      748 writes/s  p99 159.0 ms
+ * group commit averaged 56.9 writes per commit
+ * </pre>
+ *
+ * There the writes themselves saturate the CPU and only the per-commit work
+ * is saved. Where commits wait on the disk or the database is a network hop
+ * away, each saved commit and round trip is worth more and the gap widens.
+ */
+@Tag("performance")
+@SpringBootTest(properties = {
+        "application.products.group-commit.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        // Printing every statement would dominate the timings
+        "spring.jpa.show-sql=false",
+        "logging.level.com.antigravity=INFO"})
+@ActiveProfiles("test")
+class ProductGroupCommitBenchmarkIT extends PostgresTestContainerConfig {
+
+    private static final int THREADS = 64;
+    private static final int ITERATIONS_PER_THREAD = 100;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void groupCommitShouldRaiseWriteThroughput() throws Exception {
+        // Warms up both paths, so neither pays for class loading and JIT
+        run("warm-up", this::inOwnTransaction);
+        run("warm-up", Supplier::get);
+
+        Result baseline = run("one commit per write", this::inOwnTransaction);
+        DistributionSummary batchSizes = meterRegistry.get("products.group-commit.batch-size").summary();
+        long batchesBefore = batchSizes.count();
+        double writesBefore = batchSizes.totalAmount();
+        Result grouped = run("group commit", Supplier::get);
+        System.out.printf("group commit averaged %.1f writes per commit%n",
+                (batchSizes.totalAmount() - writesBefore) / (batchSizes.count() - batchesBefore));
+
+        assertTrue(grouped.writesPerSecond() > baseline.writesPerSecond() * 1.1,
+                "Group commit should raise throughput: " + grouped + " vs " + baseline);
+        // Waiting for a batch costs at most max-wait, far less than queueing for a connection
+        assertTrue(grouped.p99Millis() < baseline.p99Millis(),
+                "Group commit should not hurt tail latency: " + grouped + " vs " + baseline);
+    }
+
+    private <T> T inOwnTransaction(Supplier<T> write) {
+        return new TransactionTemplate(transactionManager).execute(status -> write.get());
+    }
+
+    /** Runs the workload, passing each write through the given way of executing it. */
+    private Result run(String label, WriteMode mode) throws Exception {
+        // Every commit triggers a catalog snapshot rebuild, which gets slower as the table grows
+        jdbcTemplate.execute("TRUNCATE products CASCADE");
+        long[][] latencies = new long[THREADS][2 * ITERATIONS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long startNanos;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long[] threadLatencies = latencies[t];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+                        long before = System.nanoTime();
+                        ProductResponse product = mode.execute(() -> productService.createProduct(
+                                new ProductCreateRequest("Benchmark", null, BigDecimal.ONE, 1)));
+                        long created = System.nanoTime();
+                        mode.execute(() -> productService.updateProduct(product.id(),
+                                new ProductUpdateRequest("Benchmark", "Updated", BigDecimal.TEN, 2),
+                                product.version()));
+                        threadLatencies[2 * i] = created - before;
+                        threadLatencies[2 * i + 1] = System.nanoTime() - created;
+                    }
+                    return null;
+                }));
+            }
+            startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        Result result = new Result(all.length * 1_000_000_000L / elapsedNanos,
+                all[(int) (all.length * 0.99)] / 1_000_000.0);
+        System.out.printf("%-20s  %,d writes  %,7d writes/s  p99 %5.1f ms%n",
+                label, all.length, result.writesPerSecond(), result.p99Millis());
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface WriteMode {
+
+        <T> T execute(Supplier<T> write);
+    }
+
+    private record Result(long writesPerSecond, double p99Millis) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.antigravity.demo.performance;
+
+import com.antigravity.demo.model.UuidV7;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inserts the same number of rows into two copies of the products table, one
+ * keyed by random version 4 UUIDs and one by {@link UuidV7}, and compares
+ * insert throughput and primary-key index size. Random keys split pages all
+ * over the index and leave them partly empty; time-ordered keys only split
+ * the rightmost page and touch few pages per batch. Results are printed,
+ * e.g. on a laptop:
+ *
+ * <pre>
+ * id_bench_v4  2,000,000 rows  105,919 rows/s  pkey 76 MB
+ * id_bench_v7  2,000,000 rows  194,264 rows/s  pkey 60 MB
+ * </pre>
+ */
+@Tag("performance")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductIdInsertBenchmarkIT extends PostgresTestContainerConfig {
+
+    private static final int ROWS = 2_000_000;
+    private static final int CHUNK = 10_000;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO %s (id, name, description, price, stock, created_at, version)
+            SELECT v.id, 'Product', 'Generated description', 9.99, 1, now(), 0
+            FROM unnest(?::uuid[]) AS v(id)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS id_bench_v4, id_bench_v7");
+    }
+
+    @Test
+    void timeOrderedIdsShouldKeepThePrimaryKeyIndexCompact() {
+        Result random = insert("id_bench_v4", UUID::randomUUID);
+        Result timeOrdered = insert("id_bench_v7", UuidV7::generate);
+
+        assertTrue(timeOrdered.indexBytes() < random.indexBytes() * 0.85,
+                "v7 index should be clearly smaller: " + timeOrdered + " vs " + random);
+        assertTrue(timeOrdered.rowsPerSecond() > random.rowsPerSecond() * 0.9,
+                "v7 inserts should not be slower: " + timeOrdered + " vs " + random);
+    }
+
+    private Result insert(String table, Supplier<UUID> ids) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE products INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (id)");
+        String sql = INSERT_SQL.formatted(table);
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < ROWS; inserted += CHUNK) {
+            Object[] chunk = new Object[CHUNK];
+            for (int i = 0; i < CHUNK; i++) {
+                chunk[i] = ids.get();
+            }
+            jdbcTemplate.update(sql, statement -> {
+                Connection connection = statement.getConnection();
+                statement.setArray(1, connection.createArrayOf("uuid", chunk));
+            });
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class,
+                table + "_pkey");
+        Result result = new Result(table, ROWS * 1_000_000_000L / elapsedNanos, indexBytes);
+        System.out.printf("%s  %,d rows  %,d rows/s  pkey %,d MB%n",
+                table, ROWS, result.rowsPerSecond(), indexBytes / (1024 * 1024));
+        return result;
+    }
+
+    private record Result(String table, long rowsPerSecond, long indexBytes) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.antigravity.demo.performance;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.repository.ProductFilter;
+import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.repository.ProductSort;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.AvailableHints;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the old entity-hydrating read path with the constructor-expression
+ * projections, per request, in allocated bytes and latency. Both paths run in
+ * read-only transactions, as the service does; caches are bypassed so each
+ * iteration reaches the database. Results are printed, e.g. on a laptop:
+ *
+ * <pre>
+ * page/entity         141,057 B/op   p50  1,277 us
+ * page/projection      96,455 B/op   p50    859 us
+ * byId/entity          17,606 B/op   p50  1,262 us
+ * byId/projection      17,925 B/op   p50    629 us
+ * byId/query-cache      7,710 B/op   p50     81 us
+ * </pre>
+ */
+@Tag("performance")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductReadPathBenchmarkIT extends PostgresTestContainerConfig {
+
+    private static final int ROWS = 10_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 2_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private List<UUID> ids;
+
+    @BeforeEach
+    void seedCatalog() {
+        jdbcTemplate.update("""
+                INSERT INTO products (id, name, description, price, stock, created_at)
+                SELECT gen_random_uuid(), 'Product ' || g, 'Generated description ' || g,
+                       (g % 1000) + 0.99, g % 50, now() - (g || ' seconds')::interval
+                FROM generate_series(1, ?) AS g
+                """, ROWS);
+        jdbcTemplate.execute("ANALYZE products");
+        ids = jdbcTemplate.queryForList("SELECT id FROM products", UUID.class);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE products CASCADE");
+    }
+
+    @Test
+    void projectionShouldAllocateLessPerPageRequest() {
+        Result entity = measure("page/entity", () -> entityPage().size());
+        Result projection = measure("page/projection",
+                () -> productRepository.findPage(ProductFilter.NONE, ProductSort.NEWEST, null, null, PAGE_SIZE).size());
+
+        assertTrue(projection.bytesPerOp() < entity.bytesPerOp(),
+                "Projection should allocate less than entity hydration: " + projection + " vs " + entity);
+    }
+
+    @Test
+    void projectionShouldNotCostMorePerSingleProductRequest() {
+        int[] next = new int[1];
+        Result entity = measure("byId/entity", () -> entityById(ids.get(next[0]++ % ids.size())).stock());
+        Result projection = measure("byId/projection", () -> projectionById(ids.get(next[0]++ % ids.size())).stock());
+        // What getProduct actually does once the query cache is warm
+        UUID hot = ids.get(0);
+        measure("byId/query-cache", () -> productRepository.findResponseById(hot).orElseThrow().stock());
+
+        // One row leaves little hydration work to save; the query itself dominates
+        assertTrue(projection.bytesPerOp() < entity.bytesPerOp() * 1.1,
+                "Projection should allocate no more than entity hydration: " + projection + " vs " + entity);
+    }
+
+    private List<ProductResponse> entityPage() {
+        return entityManager
+                .createQuery("select p from Product p order by p.createdAt desc, p.id desc", Product.class)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList()
+                .stream()
+                .map(ProductReadPathBenchmarkIT::toResponse)
+                .toList();
+    }
+
+    private ProductResponse entityById(UUID id) {
+        Product product = entityManager.find(Product.class, id,
+                Map.of(AvailableHints.HINT_CACHE_MODE, CacheMode.IGNORE));
+        return toResponse(product);
+    }
+
+    private ProductResponse projectionById(UUID id) {
+        // Same query as findResponseById, without the query cache
+        return entityManager
+                .createQuery("select new com.antigravity.demo.dto.ProductDTOs$ProductResponse(p.id, p.name, "
+                        + "p.description, p.price, p.stock, p.createdAt, p.version) from Product p where p.id = :id",
+                        ProductResponse.class)
+                .setParameter("id", id)
+                .getSingleResult();
+    }
+
+    private Result measure(String name, Supplier<Integer> request) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            readOnlyTransaction.execute(status -> request.get());
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            readOnlyTransaction.execute(status -> request.get());
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Arrays.sort(nanos);
+        Result result = new Result(name, allocated / ITERATIONS,
+                nanos[ITERATIONS / 2] / 1_000, nanos[ITERATIONS * 99 / 100] / 1_000);
+        System.out.println(result);
+        return result;
+    }
+
+    private static ProductResponse toResponse(Product product) {
+        return new ProductResponse(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), product.getCreatedAt(), product.getVersion());
+    }
+
+    private record Result(String name, long bytesPerOp, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%-16s %,10d B/op   p50 %,6d us   p99 %,6d us", name, bytesPerOp, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductBatchItem;
+import com.antigravity.demo.dto.ProductDTOs.ProductBatchResponse;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = SqlStatementRecorder.PROPERTY)
+@ActiveProfiles("test")
+class ProductBatchLookupIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    private final List<UUID> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        ids.clear();
+        for (int i = 0; i < 50; i++) {
+            ids.add(productRepository.save(new Product(UUID.randomUUID(), "P" + i, "Description",
+                    BigDecimal.TEN, i, Instant.now())).getId());
+        }
+    }
+
+    @Test
+    void shouldResolveAllIdsInOneQueryAndKeepRequestOrder() {
+        // Arrange
+        UUID missing = UUID.randomUUID();
+        List<UUID> requested = new ArrayList<>(ids.reversed());
+        requested.add(25, missing);
+
+        // Act
+        SqlStatementRecorder.clear();
+        ProductBatchResponse response = productService.getProductsByIds(requested);
+
+        // Assert
+        List<String> statements = SqlStatementRecorder.statements();
+        assertEquals(1, statements.size(), "Expected a single query: " + statements);
+        assertTrue(statements.get(0).contains("id = ANY(?)"), statements.get(0));
+
+        assertEquals(requested, response.items().stream().map(ProductBatchItem::id).toList());
+        ProductBatchItem absent = response.items().get(25);
+        assertFalse(absent.found());
+        assertNull(absent.product());
+        assertEquals("P0", response.items().get(50).product().name());
+        assertEquals(50, response.items().stream().filter(ProductBatchItem::found).count());
+    }
+
+    @Test
+    void statementShouldNotDependOnNumberOfIds() {
+        SqlStatementRecorder.clear();
+        productService.getProductsByIds(ids.subList(0, 1));
+        productService.getProductsByIds(ids);
+
+        List<String> statements = SqlStatementRecorder.statements();
+        assertEquals(2, statements.size());
+        assertEquals(statements.get(0), statements.get(1));
+    }
+}
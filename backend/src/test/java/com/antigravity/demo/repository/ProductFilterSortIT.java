@@ -0,0 +1,155 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductPageResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.service.ProductCursor;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.SqlStatementRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = SqlStatementRecorder.PROPERTY)
+@ActiveProfiles("test")
+class ProductFilterSortIT extends PostgresTestContainerConfig {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @BeforeEach
+    void seedCatalog() {
+        // Prices and names repeat so the id tie-breaker is exercised; every 10th product is out of stock
+        jdbcTemplate.update("""
+                INSERT INTO products (id, name, description, price, stock, created_at)
+                SELECT gen_random_uuid(), 'Product ' || (g % 500), 'Generated description ' || g,
+                       (g % 1000) + 0.99, CASE WHEN g % 10 = 0 THEN 0 ELSE g % 50 END,
+                       now() - (g || ' minutes')::interval
+                FROM generate_series(1, ?) AS g
+                """, ROWS);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE products CASCADE");
+    }
+
+    @Test
+    void pagesShouldMatchFilterAndSortWithoutGapsOrDuplicates() {
+        ProductFilter filter = new ProductFilter(new BigDecimal("10"), new BigDecimal("20.99"), true,
+                Instant.now().minus(10, ChronoUnit.DAYS));
+        String where = "price >= 10 AND price <= 20.99 AND stock > 0 AND created_at > now() - interval '10 days'";
+
+        assertPages(filter, ProductSort.NEWEST, where + " ORDER BY created_at DESC, id DESC");
+        assertPages(filter, ProductSort.PRICE_ASC, where + " ORDER BY price, id");
+        assertPages(filter, ProductSort.PRICE_DESC, where + " ORDER BY price DESC, id DESC");
+        assertPages(filter, ProductSort.NAME_ASC, where + " ORDER BY name, id");
+        assertPages(filter, ProductSort.NAME_DESC, where + " ORDER BY name DESC, id DESC");
+    }
+
+    @Test
+    void everyFilterAndSortCombinationShouldUseAnIndex() throws SQLException {
+        ProductResponse sample = productRepository.findPage(ProductFilter.NONE, ProductSort.NEWEST, null, null, 1).get(0);
+
+        // EXPLAIN of a statement with $n placeholders must go through the simple query protocol
+        String simpleProtocolUrl = url + (url.contains("?") ? "&" : "?") + "preferQueryMode=simple";
+        try (Connection connection = DriverManager.getConnection(simpleProtocolUrl, username, password)) {
+            for (int mask = 0; mask < 16; mask++) {
+                ProductFilter filter = new ProductFilter(
+                        (mask & 1) != 0 ? new BigDecimal("100") : null,
+                        (mask & 2) != 0 ? new BigDecimal("200") : null,
+                        (mask & 4) != 0,
+                        (mask & 8) != 0 ? Instant.now().minus(1, ChronoUnit.DAYS) : null);
+                for (ProductSort sort : ProductSort.values()) {
+                    assertUsesIndex(connection, filter, sort, null);
+                    assertUsesIndex(connection, filter, sort, ProductCursor.after(sort, sample));
+                }
+            }
+        }
+    }
+
+    private void assertPages(ProductFilter filter, ProductSort sort, String whereAndOrder) {
+        List<UUID> expected = jdbcTemplate.queryForList("SELECT id FROM products WHERE " + whereAndOrder, UUID.class);
+        assertTrue(expected.size() > 100, "Filter should leave several pages");
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageResponse page = productService.getProductPage(cursor, 50, filter, sort);
+            page.items().stream().map(ProductResponse::id).forEach(seen::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen, "Pages for " + sort);
+    }
+
+    private void assertUsesIndex(Connection connection, ProductFilter filter, ProductSort sort, ProductCursor after)
+            throws SQLException {
+        SqlStatementRecorder.clear();
+        productRepository.findPage(filter, sort, after != null ? after.key() : null, after != null ? after.id() : null, 21);
+        List<String> statements = SqlStatementRecorder.statements();
+        assertEquals(1, statements.size(), "Filters and sort should compile into a single query");
+
+        // The generic plan is the one Postgres may settle on once the driver server-prepares the statement
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberPlaceholders(statements.get(0)))) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        String description = filter + " " + sort + (after != null ? " after cursor" : "") + ":\n" + plan;
+        assertTrue(plan.indexOf("Index") >= 0, "Expected an index scan for " + description);
+        assertFalse(plan.indexOf("Seq Scan") >= 0, "Unexpected sequential scan for " + description);
+    }
+
+    private static String numberPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductPageResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductRepositoryKeysetIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void pagesShouldWalkWholeCatalogNewestFirstWithoutGapsOrDuplicates() {
+        // Arrange: two rows share a timestamp so the id tie-breaker is exercised
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Instant createdAt = i == 6 ? base.plusSeconds(5) : base.plusSeconds(i);
+            products.add(productRepository.save(product("P" + i, createdAt)));
+        }
+
+        // Act
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPageResponse page = productService.getProductPage(cursor, 3, ProductFilter.NONE, ProductSort.NEWEST);
+            page.items().stream().map(ProductResponse::id).forEach(seen::add);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(3, pages);
+        assertEquals(products.size(), seen.size());
+        assertEquals(products.size(), seen.stream().distinct().count());
+
+        List<Product> ordered = new ArrayList<>(products);
+        ordered.sort((a, b) -> {
+            int byTime = b.getCreatedAt().compareTo(a.getCreatedAt());
+            return byTime != 0 ? byTime : b.getId().toString().compareTo(a.getId().toString());
+        });
+        assertEquals(ordered.stream().map(Product::getId).toList(), seen);
+    }
+
+    private Product product(String name, Instant createdAt) {
+        return new Product(UUID.randomUUID(), name, "Description", BigDecimal.TEN, 1, createdAt);
+    }
+}
@@ -0,0 +1,110 @@
+package com.antigravity.demo.repository;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductSearchResponse;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        productRepository.save(product("Wireless Keyboard", "Compact layout"));
+        productRepository.save(product("USB Cable", "Works with any wireless keyboard dock"));
+        productRepository.save(product("Wired Mouse", "Optical sensor"));
+        productRepository.save(product("Monitor Stand", "Aluminium"));
+    }
+
+    @Test
+    void lastWordShouldMatchAsPrefix() {
+        List<String> names = names(productService.searchProducts("wireless key", null, null));
+
+        assertEquals(2, names.size());
+        assertTrue(names.containsAll(List.of("Wireless Keyboard", "USB Cable")));
+        assertTrue(productService.searchProducts("wireless key ", null, null).items().isEmpty(),
+                "A trailing space marks the word as complete");
+    }
+
+    @Test
+    void nameMatchesShouldRankAboveDescriptionMatches() {
+        assertEquals(List.of("Wireless Keyboard", "USB Cable"),
+                names(productService.searchProducts("wireless", null, null)));
+    }
+
+    @Test
+    void resultsShouldBePaged() {
+        ProductSearchResponse first = productService.searchProducts("wire", 0, 2);
+        ProductSearchResponse second = productService.searchProducts("wire", 1, 2);
+
+        assertEquals(2, first.items().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, second.items().size());
+        assertFalse(second.hasNext());
+        assertTrue(first.items().stream().noneMatch(second.items()::contains));
+    }
+
+    @Test
+    void operatorCharactersShouldBeTreatedAsSeparators() {
+        assertEquals(List.of("Monitor Stand"), names(productService.searchProducts("monitor)|(!", null, null)));
+        assertTrue(productService.searchProducts("keyboard:B & zzz", null, null).items().isEmpty());
+    }
+
+    @Test
+    void updatesShouldBeSearchableImmediately() {
+        Product product = productRepository.save(product("Desk Lamp", "LED"));
+        product.setName("Ergonomic Chair");
+        productRepository.save(product);
+
+        assertEquals(List.of("Ergonomic Chair"), names(productService.searchProducts("ergo", null, null)));
+        assertTrue(productService.searchProducts("lamp", null, null).items().isEmpty());
+    }
+
+    @Test
+    void onlyTheNewestMatchesShouldBeRanked_WhenMoreMatchThanCandidates() {
+        Instant now = Instant.now();
+        // The best match by rank is also the oldest
+        productRepository.save(new Product(UUID.randomUUID(), "Gadget", "Classic", BigDecimal.TEN, 1, now.minusSeconds(30)));
+        productRepository.save(new Product(UUID.randomUUID(), "Holder", "Gadget stand", BigDecimal.TEN, 1, now.minusSeconds(20)));
+        productRepository.save(new Product(UUID.randomUUID(), "Sleeve", "Gadget cover", BigDecimal.TEN, 1, now.minusSeconds(10)));
+
+        List<ProductResponse> results = new TransactionTemplate(transactionManager)
+                .execute(status -> productRepository.search("gadget", 0, 10, 2));
+
+        assertEquals(List.of("Sleeve", "Holder"), results.stream().map(ProductResponse::name).toList());
+    }
+
+    private static List<String> names(ProductSearchResponse response) {
+        return response.items().stream().map(ProductResponse::name).toList();
+    }
+
+    private static Product product(String name, String description) {
+        return new Product(UUID.randomUUID(), name, description, BigDecimal.TEN, 1, Instant.now());
+    }
+}
@@ -0,0 +1,184 @@
+package com.antigravity.demo.security;
+
+import com.antigravity.demo.repository.UserRepository;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "application.security.rate-limit.per-ip.capacity=5",
+        "application.security.rate-limit.per-account.capacity=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthRateLimitIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @SpyBean
+    private PasswordHasher passwordHasher;
+
+    @Test
+    void login_shouldBeRefusedPerAccount_BeforeAnyLookup() throws Exception {
+        // Arrange: the account's two attempts, from different addresses
+        login("10.0.1.1", "victim@example.com").andExpect(status().isUnauthorized());
+        login("10.0.1.2", "Victim@Example.com").andExpect(status().isUnauthorized());
+        clearInvocations(userRepository);
+        double rejectedBefore = rejections("account");
+
+        // Act & Assert
+        login("10.0.1.3", "victim@example.com")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.status").value(429));
+        verify(userRepository, never()).findByEmail(any());
+        assertEquals(rejectedBefore + 1, rejections("account"));
+    }
+
+    @Test
+    void login_shouldNotChargeAccount_ForSuccessfulLogins() throws Exception {
+        // Arrange
+        register("10.0.5.1", "owner@example.com").andExpect(status().isOk());
+
+        // Act & Assert: more sign-ins than the account's two attempts
+        for (int i = 0; i < 4; i++) {
+            login("10.0.5." + (i + 2), "owner@example.com").andExpect(status().isOk());
+        }
+        login("10.0.5.9", "owner@example.com", "not-my-password").andExpect(status().isUnauthorized());
+        login("10.0.5.9", "owner@example.com").andExpect(status().isOk());
+    }
+
+    @Test
+    void login_shouldHashAtMostCapacity_ForConcurrentAttemptsOnOneAccount() throws Exception {
+        // Arrange: an existing account, so that every attempt let through is hashed
+        register("10.0.6.1", "stuffed@example.com").andExpect(status().isOk());
+        clearInvocations(passwordHasher);
+        int attempts = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            String address = "10.0.7." + (i + 1);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return login(address, "stuffed@example.com", "not-my-password")
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int unauthorized = 0;
+        int refused = 0;
+        for (Future<Integer> future : futures) {
+            int status = future.get();
+            if (status == 401) {
+                unauthorized++;
+            } else if (status == 429) {
+                refused++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(2, unauthorized);
+        assertEquals(attempts - 2, refused);
+        verify(passwordHasher, times(2)).matches(any(), any());
+    }
+
+    @Test
+    void login_shouldBeRefusedPerIp_AcrossAccounts() throws Exception {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            login("10.0.2.1", "user" + i + "@example.com").andExpect(status().isUnauthorized());
+        }
+        double rejectedBefore = rejections("ip");
+
+        // Act & Assert
+        login("10.0.2.1", "another@example.com")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"));
+        assertEquals(rejectedBefore + 1, rejections("ip"));
+        login("10.0.2.2", "another@example.com").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void login_shouldStillSeeBody_AfterLimiterReadIt() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.3.1");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"not-an-email\",\"password\":\"password\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors[0].field").value("email"));
+    }
+
+    @Test
+    void login_shouldRefuseOversizedBody() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.4.1");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"padding\":\"" + "x".repeat(5_000) + "\",\"email\":\"victim@example.com\"}"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    private ResultActions register(String remoteAddress, String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/register")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"password\"}"));
+    }
+
+    private ResultActions login(String remoteAddress, String email) throws Exception {
+        return login(remoteAddress, email, "password");
+    }
+
+    private ResultActions login(String remoteAddress, String email, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"));
+    }
+
+    private double rejections(String limit) {
+        return meterRegistry.get("auth.rate-limit.rejected").tag("limit", limit).counter().count();
+    }
+}
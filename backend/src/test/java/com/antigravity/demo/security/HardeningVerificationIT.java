@@ -101,4 +101,27 @@ public class HardeningVerificationIT extends PostgresTestContainerConfig {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message", containsString("contains invalid characters")));
     }
+
+    @Test
+    void shouldServeHealthWithoutToken() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components").doesNotExist());
+    }
+
+    @Test
+    void shouldKeepOtherActuatorEndpointsForAdmins() throws Exception {
+        String userToken = JwtTestTokens.createToken("user@example.com", "USER");
+        String adminToken = JwtTestTokens.createToken("admin@example.com", "ADMIN");
+
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics")
+                .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics")
+                .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+    }
 }
@@ -34,9 +34,17 @@ class JwtNegativeScenariosIT extends PostgresTestContainerConfig {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void accessProtectedEndpoint_MissingExpiration_ShouldReturn401() throws Exception {
+        // Signed with our key, but a token that never expires is not accepted
+        mockMvc.perform(get("/api/products")
+                .header("Authorization", "Bearer " + JwtTestTokens.createTokenWithoutExpiration()))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void accessProtectedEndpoint_MissingRoleClaim_ShouldReturn403() throws Exception {
-        // JwtService.extractRole will return null, SimpleGrantedAuthority("ROLE_null")
+        // JwtService.verify returns a null role, SimpleGrantedAuthority("ROLE_null")
         // is created.
         // The token is technically valid (signed, not expired), so it proceeds to
         // authorization which fails with 403.
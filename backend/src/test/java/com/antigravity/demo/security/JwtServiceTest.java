@@ -0,0 +1,189 @@
+package com.antigravity.demo.security;
+
+import com.antigravity.demo.model.Role;
+import com.antigravity.demo.testsupport.JwtTestTokens;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    // Uncached, so that every call below exercises verification itself
+    private final JwtService fastPath = new JwtService(SECRET, 60, true, 0, new SimpleMeterRegistry());
+    private final JwtService parserOnly = new JwtService(SECRET, 60, false, 0, new SimpleMeterRegistry());
+
+    @Test
+    void verify_shouldReturnClaimsOfIssuedToken_OnBothPaths() {
+        // Arrange
+        Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        String token = fastPath.generateToken("admin@test.com", Role.ADMIN);
+
+        // Act & Assert
+        for (JwtService service : new JwtService[] {fastPath, parserOnly}) {
+            JwtPrincipal principal = service.verify(token);
+            assertEquals("admin@test.com", principal.subject());
+            assertEquals("ADMIN", principal.role());
+            assertFalse(principal.expiresAt().isBefore(before.plus(60, ChronoUnit.MINUTES)));
+        }
+    }
+
+    @Test
+    void verify_shouldReturnNullRole_WhenTokenHasNone() {
+        String token = JwtTestTokens.createTokenWithoutRole();
+
+        assertNull(fastPath.verify(token).role());
+        assertNull(parserOnly.verify(token).role());
+    }
+
+    @Test
+    void verify_shouldRejectExpiredToken_OnBothPaths() {
+        String token = JwtTestTokens.createExpiredToken();
+
+        assertThrows(ExpiredJwtException.class, () -> fastPath.verify(token));
+        assertThrows(ExpiredJwtException.class, () -> parserOnly.verify(token));
+    }
+
+    @Test
+    void verify_shouldRejectTokenWithoutExpiration_OnBothPaths() {
+        String token = JwtTestTokens.createTokenWithoutExpiration();
+
+        assertThrows(MissingClaimException.class, () -> fastPath.verify(token));
+        assertThrows(MissingClaimException.class, () -> parserOnly.verify(token));
+    }
+
+    @Test
+    void verify_shouldRejectTamperedAndForeignTokens_OnBothPaths() {
+        for (String token : new String[] {JwtTestTokens.createTamperedToken(),
+                JwtTestTokens.createTokenWithWrongSecret()}) {
+            assertThrows(JwtException.class, () -> fastPath.verify(token), token);
+            assertThrows(JwtException.class, () -> parserOnly.verify(token), token);
+        }
+    }
+
+    @Test
+    void verify_shouldRejectTruncatedSignature() {
+        String token = fastPath.generateToken("user@test.com", Role.USER);
+
+        assertThrows(JwtException.class, () -> fastPath.verify(token.substring(0, token.length() - 1)));
+    }
+
+    @Test
+    void verify_shouldDeferToParser_WhenTokenIsNotYetValid() {
+        // Arrange: a claim the direct check does not handle
+        String token = Jwts.builder()
+                .setClaims(Map.of("role", "USER"))
+                .setSubject("user@test.com")
+                .setNotBefore(new Date(System.currentTimeMillis() + 60_000))
+                .setExpiration(new Date(System.currentTimeMillis() + 120_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> fastPath.verify(token));
+    }
+
+    @Test
+    void verify_shouldAcceptTokensWithOtherHeaders_ThroughParser() {
+        // Arrange: a typ header changes the prefix, so the direct check does not apply
+        String token = Jwts.builder()
+                .setHeaderParam("typ", "JWT")
+                .setSubject("user@test.com")
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act
+        JwtPrincipal principal = fastPath.verify(token);
+
+        // Assert
+        assertEquals("user@test.com", principal.subject());
+        assertEquals("USER", principal.role());
+    }
+
+    @Test
+    void verify_shouldAnswerRepeatedTokenFromCache() {
+        // Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService cached = new JwtService(SECRET, 60, true, 100, meterRegistry);
+        String token = cached.generateToken("user@test.com", Role.USER);
+
+        // Act
+        JwtPrincipal first = cached.verify(token);
+        JwtPrincipal second = cached.verify(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, cacheGets(meterRegistry, "miss"));
+        assertEquals(1, cacheGets(meterRegistry, "hit"));
+    }
+
+    @Test
+    void verify_shouldNotCacheRejectedTokens() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService cached = new JwtService(SECRET, 60, true, 100, meterRegistry);
+        String token = JwtTestTokens.createTamperedToken();
+
+        assertThrows(JwtException.class, () -> cached.verify(token));
+        assertThrows(JwtException.class, () -> cached.verify(token));
+        assertEquals(0, cacheGets(meterRegistry, "hit"));
+    }
+
+    @Test
+    void flushVerifiedTokens_shouldForceFullVerification() {
+        // Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService cached = new JwtService(SECRET, 60, true, 100, meterRegistry);
+        String token = cached.generateToken("user@test.com", Role.USER);
+        cached.verify(token);
+
+        // Act
+        cached.flushVerifiedTokens();
+        cached.verify(token);
+
+        // Assert
+        assertEquals(2, cacheGets(meterRegistry, "miss"));
+        assertEquals(0, cacheGets(meterRegistry, "hit"));
+    }
+
+    @Test
+    void verify_shouldRejectCachedToken_OnceItExpires() throws Exception {
+        // Arrange: exp has whole-second precision, so this expires within two seconds
+        JwtService cached = new JwtService(SECRET, 60, true, 100, new SimpleMeterRegistry());
+        Date expiration = new Date(System.currentTimeMillis() + 1_000);
+        String token = Jwts.builder()
+                .setClaims(Map.of("role", "USER"))
+                .setSubject("user@test.com")
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+        cached.verify(token);
+
+        // Act
+        Thread.sleep(expiration.getTime() - System.currentTimeMillis() + 50);
+
+        // Assert
+        assertThrows(ExpiredJwtException.class, () -> cached.verify(token));
+    }
+
+    private static double cacheGets(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "jwt-verified-tokens").tag("result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.antigravity.demo.security;
+
+import com.antigravity.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHasher hasher = new PasswordHasher(new BlockingEncoder(), meterRegistry,
+            1, 1, Duration.ofMillis(1500));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void encode_shouldRunOnHashingThread() {
+        hasher.start();
+        release.countDown();
+
+        assertTrue(hasher.encode("secret").startsWith("hashed-by-password-hasher-"));
+    }
+
+    @Test
+    void encode_shouldFailFast_WhenHashingThreadsAndQueueAreFull() throws Exception {
+        // Arrange: one hash running, one queued
+        hasher.start();
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("second"));
+        while (meterRegistry.get("auth.password-hashing.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+                () -> hasher.matches("third", "hash"));
+
+        // Assert
+        assertEquals(Duration.ofMillis(1500), rejected.getRetryAfter());
+        assertEquals(1, meterRegistry.get("auth.password-hashing.rejected").counter().count());
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /** Holds every hash until released, naming the thread it ran on. */
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed-by-" + Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
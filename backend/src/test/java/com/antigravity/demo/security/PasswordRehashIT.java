@@ -0,0 +1,100 @@
+package com.antigravity.demo.security;
+
+import com.antigravity.demo.model.Role;
+import com.antigravity.demo.model.User;
+import com.antigravity.demo.repository.UserRepository;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "application.security.password.bcrypt-cost=5")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordRehashIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void login_shouldUpgradeUnprefixedHash() throws Exception {
+        // Arrange: stored the way passwords were hashed before the algorithm prefix
+        saveUser("legacy@example.com", new BCryptPasswordEncoder(5).encode("password"));
+
+        // Act
+        login("legacy@example.com", "password");
+
+        // Assert
+        assertTrue(storedHash("legacy@example.com").startsWith("{bcrypt}$2a$05$"));
+        login("legacy@example.com", "password");
+    }
+
+    @Test
+    void login_shouldUpgradeHashOfLowerCost() throws Exception {
+        saveUser("cheap@example.com", "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password"));
+
+        login("cheap@example.com", "password");
+
+        assertTrue(storedHash("cheap@example.com").startsWith("{bcrypt}$2a$05$"));
+    }
+
+    @Test
+    void login_shouldKeepCurrentHash() throws Exception {
+        String current = "{bcrypt}" + new BCryptPasswordEncoder(5).encode("password");
+        saveUser("current@example.com", current);
+
+        login("current@example.com", "password");
+
+        assertEquals(current, storedHash("current@example.com"));
+    }
+
+    @Test
+    void failedLogin_shouldNotTouchHash() throws Exception {
+        String legacy = new BCryptPasswordEncoder(4).encode("password");
+        saveUser("wrong@example.com", legacy);
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"wrong@example.com\",\"password\":\"not-the-password\"}"))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(legacy, storedHash("wrong@example.com"));
+    }
+
+    private void saveUser(String email, String passwordHash) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash(passwordHash);
+        user.setRole(Role.USER);
+        userRepository.save(user);
+    }
+
+    private void login(String email, String password) throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private String storedHash(String email) {
+        return userRepository.findByEmail(email).orElseThrow().getPasswordHash();
+    }
+}
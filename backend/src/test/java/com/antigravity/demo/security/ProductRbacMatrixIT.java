@@ -168,6 +168,34 @@ class ProductRbacMatrixIT extends PostgresTestContainerConfig {
                 .andExpect(status().isOk());
     }
 
+    // --- PATCH /api/products/{id} (Partial update) ---
+
+    @Test
+    void patchProduct_NoToken_ShouldReturn401() throws Exception {
+        mockMvc.perform(patch("/api/products/" + existingProductId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\":5}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void patchProduct_UserToken_ShouldReturn403() throws Exception {
+        mockMvc.perform(patch("/api/products/" + existingProductId)
+                .header("Authorization", "Bearer " + JwtTestTokens.createUserToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\":5}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void patchProduct_AdminToken_ShouldReturn200() throws Exception {
+        mockMvc.perform(patch("/api/products/" + existingProductId)
+                .header("Authorization", "Bearer " + JwtTestTokens.createAdminToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\":5}"))
+                .andExpect(status().isOk());
+    }
+
     // --- DELETE /api/products/{id} (Delete) ---
 
     @Test
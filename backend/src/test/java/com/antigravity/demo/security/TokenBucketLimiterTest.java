@@ -0,0 +1,128 @@
+package com.antigravity.demo.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    // 5 tokens, one more every 12 seconds
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(5, Duration.ofMinutes(1), 100, clock::get);
+
+    @Test
+    void tryAcquire_shouldAllowBurstOfCapacity_ThenReportWait() {
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("key"), "request " + i);
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(12), limiter.tryAcquire("key"));
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        // Act: one token's worth of time
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(12));
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldNotSaveUpBeyondCapacity() {
+        // Arrange: idle far longer than a refill period
+        limiter.tryAcquire("key");
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("key"), "request " + i);
+        }
+        assertTrue(limiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepKeysApart() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("first");
+        }
+
+        assertTrue(limiter.tryAcquire("first") > 0);
+        assertEquals(0, limiter.tryAcquire("second"));
+    }
+
+    @Test
+    void refund_shouldGiveBackTakenToken() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        // Act
+        limiter.refund("key");
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void refund_shouldNotFillBeyondCapacity() {
+        // Arrange: taken, then refilled by waiting
+        limiter.tryAcquire("key");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        // Act
+        limiter.refund("key");
+
+        // Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("key"), "request " + i);
+        }
+        assertTrue(limiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldHandOutExactlyCapacity_UnderContention() throws Exception {
+        // Arrange
+        TokenBucketLimiter shared = new TokenBucketLimiter(1_000, Duration.ofDays(1), 100, clock::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                int granted = 0;
+                for (int i = 0; i < 1_000; i++) {
+                    if (shared.tryAcquire("key") == 0) {
+                        granted++;
+                    }
+                }
+                return granted;
+            }));
+        }
+        int granted = 0;
+        for (Future<Integer> future : futures) {
+            granted += future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1_000, granted);
+    }
+}
@@ -0,0 +1,161 @@
+package com.antigravity.demo.security;
+
+import com.antigravity.demo.dto.AuthRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.exception.EmailAlreadyInUseException;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.service.AuthService;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "application.security.password.bcrypt-cost=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserRegistrationIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void concurrentRegistrations_shouldLetExactlyOneThrough() throws Exception {
+        // Arrange: the same address in different letter cases, all released at once
+        String email = "race-" + UUID.randomUUID() + "@example.com";
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String variant = i % 2 == 0 ? email : email.toUpperCase(Locale.ROOT);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return authService.register(registerRequest(variant));
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int succeeded = 0;
+        int conflicts = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(EmailAlreadyInUseException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, succeeded);
+        assertEquals(threads - 1, conflicts);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE lower(email) = ?", Integer.class, email));
+    }
+
+    @Test
+    void register_shouldReturn409_WhenEmailTakenInAnyCase() throws Exception {
+        String email = "taken-" + UUID.randomUUID() + "@example.com";
+        register(email).andExpect(status().isOk());
+
+        register(email.toUpperCase(Locale.ROOT))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value("Email already in use"));
+    }
+
+    @Test
+    void login_shouldIgnoreEmailCase() throws Exception {
+        String email = "Mixed-" + UUID.randomUUID() + "@Example.com";
+        register(email).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email.toLowerCase(Locale.ROOT) + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void register_shouldLeaveUnrelatedCacheRegionsAlone() throws Exception {
+        // Arrange: a product in the second-level cache
+        ProductResponse product = productService.createProduct(
+                new ProductCreateRequest("Cached", null, BigDecimal.ONE, 1));
+        productService.getProduct(product.id());
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, product.id()));
+
+        // Act
+        register("cache-" + UUID.randomUUID() + "@example.com").andExpect(status().isOk());
+
+        // Assert
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, product.id()));
+    }
+
+    @Test
+    void emailLookupShouldUseLowerEmailIndex() {
+        List<String> plan = new TransactionTemplate(transactionManager).execute(status -> {
+            // The table is far too small for the planner to choose an index by itself
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return jdbcTemplate.queryForList(
+                    "EXPLAIN SELECT id FROM users WHERE lower(email) = lower('someone@example.com')", String.class);
+        });
+        assertTrue(plan.stream().anyMatch(line -> line.contains("ux_users_email_lower")), String.join("\n", plan));
+    }
+
+    private ResultActions register(String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"password\"}"));
+    }
+
+    private static AuthRequest.RegisterRequest registerRequest(String email) {
+        AuthRequest.RegisterRequest request = new AuthRequest.RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("password");
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.antigravity.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    private static List<CsvReader.Row> readAll(String csv, int maxFieldLength, int maxFields) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv), maxFieldLength, maxFields);
+        List<CsvReader.Row> rows = new ArrayList<>();
+        CsvReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<CsvReader.Row> readAll(String csv) throws IOException {
+        return readAll(csv, 100, 10);
+    }
+
+    @Test
+    void next_shouldSplitPlainAndQuotedFields() throws IOException {
+        // Act
+        List<CsvReader.Row> rows = readAll("a,b,c\n\"x, y\",\"say \"\"hi\"\"\",\n");
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertEquals(List.of("a", "b", "c"), rows.get(0).fields());
+        assertEquals(List.of("x, y", "say \"hi\"", ""), rows.get(1).fields());
+        assertNull(rows.get(1).error());
+    }
+
+    @Test
+    void next_shouldKeepLineBreaksInsideQuotesAndReportStartingLine() throws IOException {
+        // Act
+        List<CsvReader.Row> rows = readAll("h1,h2\r\n\"multi\r\nline\",1\r\n\r\nlast,2");
+
+        // Assert
+        assertEquals(3, rows.size());
+        assertEquals(1, rows.get(0).line());
+        assertEquals(List.of("multi\r\nline", "1"), rows.get(1).fields());
+        assertEquals(2, rows.get(1).line());
+        assertEquals(List.of("last", "2"), rows.get(2).fields());
+        assertEquals(5, rows.get(2).line());
+    }
+
+    @Test
+    void next_shouldSkipByteOrderMark() throws IOException {
+        // Act
+        List<CsvReader.Row> rows = readAll("\uFEFFname,price\n");
+
+        // Assert
+        assertEquals(List.of("name", "price"), rows.get(0).fields());
+    }
+
+    @Test
+    void next_shouldReportMalformedQuotesAndContinueWithNextRecord() throws IOException {
+        // Act
+        List<CsvReader.Row> rows = readAll("\"a\"b,c\nok,1\n\"open");
+
+        // Assert
+        assertEquals(3, rows.size());
+        assertEquals("Unexpected character after closing quote", rows.get(0).error());
+        assertNull(rows.get(1).error());
+        assertEquals(List.of("ok", "1"), rows.get(1).fields());
+        assertEquals("Unterminated quoted field", rows.get(2).error());
+    }
+
+    @Test
+    void next_shouldCapFieldLengthAndFieldCount() throws IOException {
+        // Act
+        List<CsvReader.Row> rows = readAll("abcdef,x\na,b,c,d\n", 5, 3);
+
+        // Assert
+        assertEquals("Field exceeds 5 characters", rows.get(0).error());
+        assertEquals("abcde", rows.get(0).fields().get(0));
+        assertEquals("Record has more than 3 fields", rows.get(1).error());
+        assertEquals(3, rows.get(1).fields().size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.antigravity.demo.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinTopKTest {
+
+    @Test
+    void top_shouldRankHeavyHittersAboveLongTail() {
+        // Arrange
+        CountMinTopK sketch = new CountMinTopK(4096, 4, 10);
+        List<UUID> heavy = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            heavy.add(UUID.randomUUID());
+        }
+        Random random = new Random(42);
+
+        // Act: 50,000 products seen a few times each, interleaved with the heavy hitters
+        for (int i = 0; i < 50_000; i++) {
+            sketch.add(UUID.randomUUID(), 1 + random.nextInt(3));
+            if (i % 100 == 0) {
+                for (int h = 0; h < heavy.size(); h++) {
+                    sketch.add(heavy.get(h), 10L * (h + 1));
+                }
+            }
+        }
+
+        // Assert
+        List<CountMinTopK.Entry> top = sketch.top();
+        assertEquals(10, top.size());
+        for (int rank = 0; rank < top.size(); rank++) {
+            UUID expected = heavy.get(heavy.size() - 1 - rank);
+            assertEquals(expected, top.get(rank).id(), "rank " + rank);
+            long exact = 500L * 10 * (heavy.size() - rank);
+            assertTrue(top.get(rank).estimate() >= exact, "Count-Min never undercounts");
+        }
+    }
+
+    @Test
+    void add_shouldAccumulateCountsPerProduct() {
+        // Arrange
+        CountMinTopK sketch = new CountMinTopK(1024, 4, 3);
+        UUID id = UUID.randomUUID();
+
+        // Act
+        sketch.add(id, 5);
+        sketch.add(id, 7);
+
+        // Assert
+        assertEquals(List.of(new CountMinTopK.Entry(id, 12)), sketch.top());
+    }
+
+    @Test
+    void decay_shouldHalveCountsAndLetNewProductsOvertake() {
+        // Arrange
+        CountMinTopK sketch = new CountMinTopK(1024, 4, 1);
+        UUID old = UUID.randomUUID();
+        UUID recent = UUID.randomUUID();
+        sketch.add(old, 100);
+
+        // Act
+        sketch.decay();
+        sketch.decay();
+        sketch.add(recent, 30);
+
+        // Assert
+        assertEquals(List.of(new CountMinTopK.Entry(recent, 30)), sketch.top());
+    }
+}
@@ -0,0 +1,78 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.service.ProductCatalogSnapshot;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.ProductTestData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCatalogSnapshotCacheIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void snapshotShouldBeRebuiltAfterEachCommittedChange() throws Exception {
+        productService.getCatalogSnapshot();
+
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        ProductCatalogSnapshot afterCreate = awaitSnapshot(snapshot -> containsProduct(snapshot, created.id()));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(afterCreate.gzippedJson()))) {
+            assertArrayEquals(afterCreate.json(), in.readAllBytes());
+        }
+
+        productService.deleteProduct(created.id(), null);
+        awaitSnapshot(snapshot -> !containsProduct(snapshot, created.id()));
+    }
+
+    @Test
+    void repeatedReadsShouldShareTheSameSnapshotInstance() {
+        assertSame(productService.getCatalogSnapshot(), productService.getCatalogSnapshot());
+    }
+
+    private ProductCatalogSnapshot awaitSnapshot(SnapshotCondition condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            ProductCatalogSnapshot snapshot = productService.getCatalogSnapshot();
+            if (condition.test(snapshot)) {
+                return snapshot;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Snapshot was not rebuilt within 5s");
+    }
+
+    private boolean containsProduct(ProductCatalogSnapshot snapshot, UUID id) throws Exception {
+        JsonNode products = objectMapper.readTree(snapshot.json());
+        assertEquals(snapshot.productCount(), products.size());
+        for (JsonNode product : products) {
+            if (id.toString().equals(product.get("id").asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface SnapshotCondition {
+        boolean test(ProductCatalogSnapshot snapshot) throws Exception;
+    }
+}
@@ -0,0 +1,83 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductBulkCreateResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.model.Product;
+import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.SqlStatementRecorder;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements Hibernate prepares per created product. With JDBC
+ * batching one prepared INSERT carries a whole batch.
+ */
+@SpringBootTest(properties = SqlStatementRecorder.PROPERTY)
+@ActiveProfiles("test")
+class ProductCreateStatementCountIT extends PostgresTestContainerConfig {
+
+    private static final int BULK_SIZE = 2_500;
+    private static final int JDBC_BATCH_SIZE = 100;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void createShouldIssueASingleInsertAndNoSelect() {
+        SqlStatementRecorder.clear();
+        productService.createProduct(new ProductCreateRequest("Single", "Description", BigDecimal.TEN, 1));
+
+        List<String> statements = SqlStatementRecorder.statements();
+        assertEquals(1, statements.size(), "Expected only the INSERT: " + statements);
+        assertTrue(statements.get(0).toLowerCase(Locale.ROOT).startsWith("insert into products"), statements.get(0));
+    }
+
+    @Test
+    void bulkCreateShouldInsertInJdbcBatches() {
+        List<ProductCreateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BULK_SIZE; i++) {
+            requests.add(new ProductCreateRequest("Bulk " + i, "Description " + i, BigDecimal.valueOf(i + 1), i));
+        }
+
+        SqlStatementRecorder.clear();
+        ProductBulkCreateResponse response = productService.createProducts(requests);
+
+        List<String> statements = SqlStatementRecorder.statements();
+        assertTrue(statements.stream().allMatch(sql -> sql.toLowerCase(Locale.ROOT).startsWith("insert into products")),
+                "Expected INSERTs only");
+        assertTrue(statements.size() <= BULK_SIZE / JDBC_BATCH_SIZE,
+                statements.size() + " statements for " + BULK_SIZE + " products");
+
+        assertEquals(BULK_SIZE, response.created());
+        assertEquals(BULK_SIZE, productRepository.count());
+        ProductResponse last = productService.getProduct(response.ids().get(BULK_SIZE - 1));
+        assertEquals("Bulk " + (BULK_SIZE - 1), last.name());
+        assertFalse(entityManagerFactory.getCache().contains(Product.class, response.ids().get(0)),
+                "Bulk-created products should not be put in the second-level cache");
+    }
+}
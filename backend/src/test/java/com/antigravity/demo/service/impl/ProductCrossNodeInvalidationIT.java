@@ -0,0 +1,143 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.DemoApplication;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.exception.ProductNotFoundException;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.ProductTestData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a second application context against the same database and checks that
+ * writes on this node evict what the other node cached.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCrossNodeInvalidationIT extends PostgresTestContainerConfig {
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    private ProductService otherNodeService;
+
+    @BeforeEach
+    void startOtherNode() {
+        if (otherNode == null) {
+            otherNode = new SpringApplicationBuilder(DemoApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    // Command-line arguments, so they win over application.yml like the test's dynamic properties do
+                    .run(argument("spring.datasource.url"),
+                            argument("spring.datasource.username"),
+                            argument("spring.datasource.password"),
+                            "--spring.flyway.enabled=false",
+                            "--application.products.invalidation.reconnect-delay=100ms");
+        }
+        otherNodeService = otherNode.getBean(ProductService.class);
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        if (otherNode != null) {
+            otherNode.close();
+            otherNode = null;
+        }
+    }
+
+    @Test
+    void updateShouldEvictProductCachedOnOtherNode() {
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        assertEquals(ProductTestData.DEFAULT_NAME, otherNodeService.getProduct(created.id()).name());
+
+        // A write that bypasses the service is not broadcast: the other node keeps serving its cache
+        jdbcTemplate.update("UPDATE products SET description = 'Changed behind the cache' WHERE id = ?", created.id());
+        assertEquals(ProductTestData.DEFAULT_DESC, otherNodeService.getProduct(created.id()).description());
+
+        productService.updateProduct(created.id(), update("Renamed"), null);
+
+        await(() -> otherNodeService.getProduct(created.id()).name().equals("Renamed"));
+    }
+
+    @Test
+    void createAndDeleteShouldRefreshOtherNodesCatalogSnapshotAndLookups() {
+        int before = otherNodeService.getCatalogSnapshot().productCount();
+
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        await(() -> otherNodeService.getCatalogSnapshot().productCount() == before + 1);
+        otherNodeService.getProduct(created.id());
+
+        productService.deleteProduct(created.id(), null);
+        await(() -> otherNodeService.getCatalogSnapshot().productCount() == before);
+        await(() -> {
+            try {
+                otherNodeService.getProduct(created.id());
+                return false;
+            } catch (ProductNotFoundException e) {
+                return true;
+            }
+        });
+    }
+
+    @Test
+    void changesMissedWhileDisconnectedShouldBeResyncedAfterReconnect() {
+        ProductResponse created = productService.createProduct(ProductTestData.createRequest());
+        assertEquals(ProductTestData.DEFAULT_NAME, otherNodeService.getProduct(created.id()).name());
+
+        // Drop every listener connection, then change the row without any notification at all
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+                ProductChangeListener.APPLICATION_NAME);
+        jdbcTemplate.update("UPDATE products SET name = 'Changed while disconnected', version = version + 1 WHERE id = ?",
+                created.id());
+
+        await(() -> otherNodeService.getProduct(created.id()).name().equals("Changed while disconnected"));
+    }
+
+    private String argument(String name) {
+        return "--" + name + "=" + environment.getProperty(name);
+    }
+
+    private static ProductUpdateRequest update(String name) {
+        return new ProductUpdateRequest(name, ProductTestData.DEFAULT_DESC, new BigDecimal("5.00"), 1);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("Other node did not observe the change within 10s");
+    }
+}
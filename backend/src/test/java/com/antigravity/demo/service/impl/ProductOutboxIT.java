@@ -0,0 +1,177 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.exception.PreconditionFailedException;
+import com.antigravity.demo.service.OutboxMessage;
+import com.antigravity.demo.service.OutboxSink;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductOutboxIT extends PostgresTestContainerConfig {
+
+    @TestConfiguration
+    static class RecordingSinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class RecordingSink implements OutboxSink {
+
+        final List<OutboxMessage> received = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean failing;
+
+        @Override
+        public void publish(List<OutboxMessage> messages) {
+            if (failing) {
+                throw new IllegalStateException("Broker unavailable");
+            }
+            received.addAll(messages);
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductOutboxRelay relay;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE outbox");
+        sink.received.clear();
+        sink.failing = false;
+    }
+
+    private ProductResponse createProduct() {
+        return productService.createProduct(new ProductCreateRequest("Outboxed", null, BigDecimal.ONE, 1));
+    }
+
+    private List<String> outboxEvents() {
+        return jdbcTemplate.queryForList("SELECT event_type FROM outbox ORDER BY id", String.class);
+    }
+
+    @Test
+    void mutationsShouldWriteOutboxRowsOnlyWhenTheyCommit() {
+        ProductResponse product = createProduct();
+        productService.updateProduct(product.id(),
+                new ProductUpdateRequest("Renamed", null, BigDecimal.TEN, 2), product.version());
+        assertThrows(PreconditionFailedException.class, () -> productService.updateProduct(product.id(),
+                new ProductUpdateRequest("Stale", null, BigDecimal.TEN, 2), product.version()));
+        productService.deleteProduct(product.id(), null);
+
+        assertEquals(List.of("PRODUCT_CREATED", "PRODUCT_UPDATED", "PRODUCT_DELETED"), outboxEvents());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM outbox WHERE aggregate_id = ? AND payload ->> 'productId' = ?",
+                Integer.class, product.id(), product.id().toString()));
+    }
+
+    @Test
+    void bulkCreateShouldWriteOneBulkEvent() {
+        productService.createProducts(List.of(
+                new ProductCreateRequest("Bulk 1", null, BigDecimal.ONE, 1),
+                new ProductCreateRequest("Bulk 2", null, BigDecimal.ONE, 1)));
+
+        assertEquals(List.of(ProductOutboxWriter.BULK_CHANGED), outboxEvents());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT (payload ->> 'count')::int FROM outbox", Integer.class));
+    }
+
+    @Test
+    void relayShouldDeliverInOrderAndRemoveDeliveredRows() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(createProduct().id());
+        }
+
+        assertEquals(3, relay.relayPending());
+
+        assertEquals(ids, sink.received.stream().map(OutboxMessage::aggregateId).toList());
+        assertTrue(sink.received.stream().allMatch(message -> message.eventType().equals("PRODUCT_CREATED")));
+        assertEquals(List.of(), outboxEvents());
+        assertEquals(0, meterRegistry.get("outbox.backlog").gauge().value());
+        assertTrue(meterRegistry.get("outbox.relay.lag").timer().count() >= 3);
+    }
+
+    @Test
+    void failedDeliveryShouldKeepEventsForTheNextRun() {
+        createProduct();
+        sink.failing = true;
+
+        assertThrows(IllegalStateException.class, relay::relayPending);
+        assertEquals(List.of("PRODUCT_CREATED"), outboxEvents());
+        assertEquals(1, meterRegistry.get("outbox.backlog").gauge().value());
+
+        sink.failing = false;
+        assertEquals(1, relay.relayPending());
+        assertEquals(1, sink.received.size());
+        assertEquals(List.of(), outboxEvents());
+    }
+
+    @Test
+    void concurrentRelaysShouldDeliverEachEventExactlyOnce() throws Exception {
+        int events = 5_000;
+        jdbcTemplate.update("""
+                INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload)
+                SELECT 'product', gen_random_uuid(), 'PRODUCT_UPDATED', '{}'::jsonb
+                FROM generate_series(1, ?)
+                """, events);
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int relayed = 0;
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(relay::relayPending));
+            }
+            for (Future<Integer> future : futures) {
+                relayed += future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(events, relayed);
+        Set<Long> delivered = new HashSet<>();
+        sink.received.forEach(message -> assertTrue(delivered.add(message.id()), "Delivered twice: " + message));
+        assertEquals(events, delivered.size());
+        assertEquals(List.of(), outboxEvents());
+    }
+}
@@ -0,0 +1,90 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductPatchRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.SqlStatementRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the UPDATE statements partial updates produce: only the changed
+ * columns plus the version are written.
+ */
+@SpringBootTest(properties = SqlStatementRecorder.PROPERTY)
+@ActiveProfiles("test")
+class ProductPatchIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductService productService;
+
+    private ProductResponse createProduct() {
+        return productService.createProduct(
+                new ProductCreateRequest("Patchable", "Long description", new BigDecimal("10.00"), 5));
+    }
+
+    private static List<String> updates() {
+        return SqlStatementRecorder.statements().stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("update products"))
+                .toList();
+    }
+
+    @Test
+    void priceOnlyPatchShouldWriteOnlyPriceAndVersion() {
+        ProductResponse product = createProduct();
+
+        SqlStatementRecorder.clear();
+        ProductResponse patched = productService.patchProduct(product.id(),
+                new ProductPatchRequest(null, null, new BigDecimal("12.50"), null, product.version()), null);
+
+        List<String> updates = updates();
+        assertEquals(1, updates.size(), "Expected one UPDATE: " + updates);
+        String setClause = updates.get(0).substring(0, updates.get(0).indexOf(" where "));
+        assertTrue(setClause.contains("price=") && setClause.contains("version="), setClause);
+        assertFalse(setClause.contains("name=") || setClause.contains("description=")
+                || setClause.contains("stock="), setClause);
+
+        assertEquals(0, new BigDecimal("12.50").compareTo(patched.price()));
+        assertEquals("Patchable", patched.name());
+        assertEquals(product.version() + 1, patched.version());
+        assertEquals(0, new BigDecimal("12.50").compareTo(productService.getProduct(product.id()).price()));
+    }
+
+    @Test
+    void patchWithUnchangedValuesShouldNotWrite() {
+        ProductResponse product = createProduct();
+
+        SqlStatementRecorder.clear();
+        ProductResponse patched = productService.patchProduct(product.id(),
+                new ProductPatchRequest("Patchable", null, null, 5, null), null);
+
+        assertEquals(List.of(), updates());
+        assertEquals(product.version(), patched.version());
+    }
+
+    @Test
+    void patchWithStaleVersionShouldConflict() {
+        ProductResponse product = createProduct();
+        productService.patchProduct(product.id(), new ProductPatchRequest(null, null, null, 6, product.version()), null);
+
+        ProductPatchRequest stale = new ProductPatchRequest("Overwrite", null, null, null, product.version());
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> productService.patchProduct(product.id(), stale, null));
+
+        ProductResponse current = productService.getProduct(product.id());
+        assertEquals("Patchable", current.name());
+        assertEquals(6, current.stock());
+    }
+}
@@ -1,28 +1,57 @@
 package com.antigravity.demo.service.impl;
 
+import com.antigravity.demo.dto.ProductDTOs.ProductBatchItem;
+import com.antigravity.demo.dto.ProductDTOs.ProductBatchResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductBulkCreateResponse;
 import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductPageResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductPatchRequest;
 import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductSearchResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductStockResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductTrendingResponse;
 import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.exception.PreconditionFailedException;
 import com.antigravity.demo.exception.ProductNotFoundException;
 import com.antigravity.demo.model.Product;
+import com.antigravity.demo.repository.ProductFilter;
 import com.antigravity.demo.repository.ProductRepository;
+import com.antigravity.demo.repository.ProductSort;
+import com.antigravity.demo.repository.ProductWriteResult;
+import com.antigravity.demo.service.ProductCatalogSnapshot;
+import com.antigravity.demo.service.ProductChangedEvent;
+import com.antigravity.demo.service.ProductChangedEvent.Operation;
+import com.antigravity.demo.service.ProductCursor;
+import com.antigravity.demo.service.ProductsBulkChangedEvent;
 import com.antigravity.demo.testsupport.AssertionsEx;
 import com.antigravity.demo.testsupport.ProductTestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,9 +60,55 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCatalogSnapshotCache catalogSnapshotCache;
+
+    @Mock
+    private ProductCsvImporter csvImporter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Hand-written rather than mocked: an inline mock would instrument the real class and
+    // make its recordView allocate in ProductViewCounterTest
+    private final StubViewCounter viewCounter = new StubViewCounter();
+
     private ProductServiceImpl productService;
 
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl(productRepository, eventPublisher, catalogSnapshotCache,
+                csvImporter, viewCounter, new ProductWriteBatcher(transactionManager, new SimpleMeterRegistry()));
+    }
+
+    private static final class StubViewCounter extends ProductViewCounter {
+
+        private final List<UUID> recorded = new ArrayList<>();
+        private List<CountMinTopK.Entry> trending = List.of();
+
+        StubViewCounter() {
+            super(null);
+        }
+
+        @Override
+        void recordView(UUID productId) {
+            recorded.add(productId);
+        }
+
+        @Override
+        List<CountMinTopK.Entry> trending() {
+            return trending;
+        }
+
+        @Override
+        int trendingCapacity() {
+            return 100;
+        }
+    }
+
     @Test
     void createProduct_shouldCreateAndReturnResponse_WhenRequestValid() {
         // Arrange
@@ -45,6 +120,7 @@ class ProductServiceImplTest {
 
         // Assert
         AssertionsEx.assertUuid(response.id());
+        assertEquals(7, response.id().version(), "Product ids should be time-ordered");
         AssertionsEx.assertNearNow(response.createdAt());
         assertEquals(request.name(), response.name());
         assertEquals(request.description(), response.description());
@@ -58,116 +134,545 @@ class ProductServiceImplTest {
         assertEquals(response.id(), capturedProduct.getId());
         AssertionsEx.assertNearNow(capturedProduct.getCreatedAt());
         assertEquals(request.name(), capturedProduct.getName());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(response.id(), Operation.CREATED));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createProducts_shouldPersistAllInOneCallAndPublishOneEvent() {
+        // Arrange
+        List<ProductCreateRequest> requests = List.of(ProductTestData.createRequest(), ProductTestData.createRequest());
+
+        // Act
+        ProductBulkCreateResponse response = productService.createProducts(requests);
+
+        // Assert
+        assertEquals(2, response.created());
+        ArgumentCaptor<List<Product>> productsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(productRepository, times(1)).persistAll(productsCaptor.capture(), eq(1000));
+        List<Product> persisted = productsCaptor.getValue();
+        assertEquals(response.ids(), persisted.stream().map(Product::getId).toList());
+        assertTrue(persisted.stream().allMatch(Product::isNew));
+        assertEquals(persisted.get(0).getCreatedAt(), persisted.get(1).getCreatedAt());
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(new ProductsBulkChangedEvent(2));
+    }
+
+    @Test
+    void createProducts_shouldRejectOversizedRequest() {
+        // Arrange
+        List<ProductCreateRequest> requests = Collections.nCopies(5001, ProductTestData.createRequest());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.createProducts(requests));
+        verifyNoInteractions(productRepository, eventPublisher);
+    }
+
+    @Test
+    void createProducts_shouldReportIndexOfRejectedProduct() {
+        // Arrange
+        ProductCreateRequest unsafe = new ProductCreateRequest("<script>x</script>", null, BigDecimal.ONE, 1);
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> productService.createProducts(List.of(ProductTestData.createRequest(), unsafe)));
+
+        // Assert
+        assertTrue(exception.getMessage().startsWith("products[1]: "), exception.getMessage());
+        verifyNoInteractions(productRepository, eventPublisher);
     }
 
     @Test
-    void getProduct_shouldReturnProduct_WhenExists() {
+    void getProduct_shouldReturnProjection_WhenExists() {
         // Arrange
-        Product product = ProductTestData.createProduct();
-        UUID id = product.getId();
-        when(productRepository.findById(id)).thenReturn(Optional.of(product));
+        ProductResponse product = ProductTestData.createResponse();
+        UUID id = product.id();
+        when(productRepository.findResponseById(id)).thenReturn(Optional.of(product));
 
         // Act
         ProductResponse response = productService.getProduct(id);
 
         // Assert
-        assertEquals(product.getId(), response.id());
-        assertEquals(product.getName(), response.name());
-        verify(productRepository, times(1)).findById(id);
+        assertSame(product, response);
+        verify(productRepository, times(1)).findResponseById(id);
+        verify(productRepository, never()).findById(any());
+        assertEquals(List.of(id), viewCounter.recorded);
     }
 
     @Test
     void getProduct_shouldThrowProductNotFoundException_WhenMissing() {
         // Arrange
         UUID id = UUID.randomUUID();
-        when(productRepository.findById(id)).thenReturn(Optional.empty());
+        when(productRepository.findResponseById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
         ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
                 () -> productService.getProduct(id));
         assertTrue(exception.getMessage().contains(id.toString()));
-        verify(productRepository, times(1)).findById(id);
+        verify(productRepository, times(1)).findResponseById(id);
+        assertEquals(List.of(), viewCounter.recorded);
+    }
+
+    @Test
+    void getProductsByIds_shouldKeepRequestOrderAndMarkMissingIds() {
+        // Arrange
+        ProductResponse p1 = ProductTestData.createResponse();
+        ProductResponse p2 = ProductTestData.createResponse();
+        UUID missing = UUID.randomUUID();
+        when(productRepository.findResponsesByIds(any())).thenReturn(List.of(p1, p2));
+
+        // Act
+        ProductBatchResponse response = productService.getProductsByIds(List.of(p2.id(), missing, p1.id(), p2.id()));
+
+        // Assert
+        List<ProductBatchItem> items = response.items();
+        assertEquals(List.of(p2.id(), missing, p1.id(), p2.id()), items.stream().map(ProductBatchItem::id).toList());
+        assertSame(p2, items.get(0).product());
+        assertFalse(items.get(1).found());
+        assertNull(items.get(1).product());
+        assertTrue(items.get(2).found());
+        verify(productRepository, times(1)).findResponsesByIds(Set.of(p1.id(), p2.id(), missing));
+    }
+
+    @Test
+    void getProductsByIds_shouldRejectEmptyAndOversizedRequests() {
+        // Arrange
+        List<UUID> tooMany = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            tooMany.add(UUID.randomUUID());
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(tooMany));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getTrendingProducts_shouldKeepRankingAndSkipDeletedProducts() {
+        // Arrange
+        ProductResponse first = ProductTestData.createResponse();
+        ProductResponse third = ProductTestData.createResponse();
+        UUID deleted = UUID.randomUUID();
+        viewCounter.trending = List.of(
+                new CountMinTopK.Entry(first.id(), 30),
+                new CountMinTopK.Entry(deleted, 20),
+                new CountMinTopK.Entry(third.id(), 10));
+        when(productRepository.findResponsesByIds(List.of(first.id(), deleted, third.id())))
+                .thenReturn(List.of(third, first));
+
+        // Act
+        ProductTrendingResponse response = productService.getTrendingProducts(2);
+
+        // Assert
+        assertEquals(2, response.items().size());
+        assertSame(first, response.items().get(0).product());
+        assertEquals(30, response.items().get(0).views());
+        assertSame(third, response.items().get(1).product());
+        assertEquals(10, response.items().get(1).views());
+    }
+
+    @Test
+    void getTrendingProducts_shouldRejectLimitAboveCapacity() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.getTrendingProducts(101));
+        assertThrows(IllegalArgumentException.class, () -> productService.getTrendingProducts(0));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getCatalogSnapshot_shouldServeCachedSnapshot() {
+        // Arrange
+        ProductCatalogSnapshot snapshot = new ProductCatalogSnapshot(new byte[] { '[', ']' }, new byte[0], 0, "v1");
+        when(catalogSnapshotCache.get()).thenReturn(snapshot);
+
+        // Act
+        ProductCatalogSnapshot result = productService.getCatalogSnapshot();
+
+        // Assert
+        assertSame(snapshot, result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductPage_shouldReturnNextCursor_WhenMoreRowsExist() {
+        // Arrange
+        ProductResponse p1 = ProductTestData.createResponse();
+        ProductResponse p2 = ProductTestData.createResponse();
+        ProductResponse p3 = ProductTestData.createResponse();
+        when(productRepository.findPage(ProductFilter.NONE, ProductSort.NEWEST, null, null, 3))
+                .thenReturn(Arrays.asList(p1, p2, p3));
+
+        // Act
+        ProductPageResponse page = productService.getProductPage(null, 2, ProductFilter.NONE, ProductSort.NEWEST);
+
+        // Assert
+        assertEquals(2, page.items().size());
+        assertEquals(p2.id(), page.items().get(1).id());
+        ProductCursor next = ProductCursor.decode(page.nextCursor(), ProductSort.NEWEST);
+        assertEquals(p2.id(), next.id());
+        assertEquals(p2.createdAt(), next.key());
+    }
+
+    @Test
+    void getProductPage_shouldSeekAfterCursor_WhenCursorGiven() {
+        // Arrange
+        ProductResponse p1 = ProductTestData.createResponse();
+        ProductFilter filter = new ProductFilter(BigDecimal.ONE, BigDecimal.TEN, true, null);
+        ProductCursor cursor = new ProductCursor(ProductSort.PRICE_DESC, new BigDecimal("19.99"), UUID.randomUUID());
+        when(productRepository.findPage(filter, ProductSort.PRICE_DESC, new BigDecimal("19.99"), cursor.id(), 3))
+                .thenReturn(List.of(p1));
+
+        // Act
+        ProductPageResponse page = productService.getProductPage(cursor.encode(), 2, filter, ProductSort.PRICE_DESC);
+
+        // Assert
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getProductPage_shouldEncodeSortKeyOfLastRow() {
+        // Arrange
+        ProductResponse p1 = new ProductResponse(UUID.randomUUID(), "Desk | Oak", null, BigDecimal.TEN, 1, Instant.now(), 0L);
+        ProductResponse p2 = ProductTestData.createResponse();
+        when(productRepository.findPage(ProductFilter.NONE, ProductSort.NAME_ASC, null, null, 2))
+                .thenReturn(List.of(p1, p2));
+
+        // Act
+        ProductPageResponse page = productService.getProductPage(null, 1, ProductFilter.NONE, ProductSort.NAME_ASC);
+
+        // Assert
+        ProductCursor next = ProductCursor.decode(page.nextCursor(), ProductSort.NAME_ASC);
+        assertEquals("Desk | Oak", next.key());
+        assertEquals(p1.id(), next.id());
+    }
+
+    @Test
+    void getProductPage_shouldRejectCursorIssuedForAnotherSort() {
+        // Arrange
+        String cursor = new ProductCursor(ProductSort.NEWEST, Instant.now(), UUID.randomUUID()).encode();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductPage(cursor, 10, ProductFilter.NONE, ProductSort.PRICE_ASC));
+        verifyNoInteractions(productRepository);
     }
 
     @Test
-    void getAllProducts_shouldReturnMappedList_WhenProductsExist() {
+    void getProductPage_shouldClampLimitToMaxPageSize() {
         // Arrange
-        Product p1 = ProductTestData.createProduct();
-        Product p2 = ProductTestData.createProduct();
-        when(productRepository.findAll()).thenReturn(Arrays.asList(p1, p2));
+        when(productRepository.findPage(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
 
         // Act
-        List<ProductResponse> responses = productService.getAllProducts();
+        productService.getProductPage(null, 10_000, ProductFilter.NONE, ProductSort.NEWEST);
 
         // Assert
-        assertEquals(2, responses.size());
-        assertEquals(p1.getId(), responses.get(0).id());
-        assertEquals(p2.getId(), responses.get(1).id());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findPage(ProductFilter.NONE, ProductSort.NEWEST, null, null, 101);
+    }
+
+    @Test
+    void getProductPage_shouldThrowIllegalArgumentException_WhenCursorMalformed() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductPage("not-a-cursor", 10, ProductFilter.NONE, ProductSort.NEWEST));
+        verifyNoInteractions(productRepository);
     }
 
     @Test
-    void updateProduct_shouldUpdateAndReturnResponse_WhenExists() {
+    void searchProducts_shouldBuildPrefixQueryAndDetectNextPage() {
+        // Arrange
+        ProductResponse p1 = ProductTestData.createResponse();
+        ProductResponse p2 = ProductTestData.createResponse();
+        ProductResponse p3 = ProductTestData.createResponse();
+        when(productRepository.search("wireless & key:*", 4, 3, 1000)).thenReturn(List.of(p1, p2, p3));
+
+        // Act
+        ProductSearchResponse result = productService.searchProducts("  Wireless, key", 2, 2);
+
+        // Assert
+        assertEquals(List.of(p1, p2), result.items());
+        assertEquals(2, result.page());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void searchProducts_shouldMatchCompleteOrShortLastWordExactly() {
+        // Arrange
+        when(productRepository.search(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(List.of());
+
+        // Act
+        productService.searchProducts("wireless key ", null, null);
+        productService.searchProducts("usb c", null, null);
+
+        // Assert
+        verify(productRepository).search(eq("wireless & key"), anyInt(), anyInt(), anyInt());
+        verify(productRepository).search(eq("usb & c"), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchProducts_shouldSkipQuery_WhenPageIsBeyondCandidateLimit() {
+        // Act
+        ProductSearchResponse result = productService.searchProducts("wire", 10, 100);
+
+        // Assert
+        assertTrue(result.items().isEmpty());
+        assertFalse(result.hasNext());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProducts_shouldThrowIllegalArgumentException_WhenQueryHasNoTerms() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts(" & | !:* ", null, null));
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts("wire", -1, null));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void exportProducts_shouldPassEachStreamedProduct_WhenProductsExist() {
+        // Arrange
+        ProductResponse p1 = ProductTestData.createResponse();
+        ProductResponse p2 = ProductTestData.createResponse();
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> action = invocation.getArgument(1);
+            action.accept(p1);
+            action.accept(p2);
+            return null;
+        }).when(productRepository).forEachProduct(anyInt(), any());
+        List<ProductResponse> exported = new ArrayList<>();
+
+        // Act
+        productService.exportProducts(exported::add);
+
+        // Assert
+        assertEquals(List.of(p1.id(), p2.id()), exported.stream().map(ProductResponse::id).toList());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void updateProduct_shouldUpdateInOneStatementAndReturnWrittenRow_WhenExists() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        ProductUpdateRequest request = ProductTestData.updateRequest();
+        ProductResponse written = new ProductResponse(id, request.name(), request.description(), request.price(),
+                request.stock(), Instant.now(), 1L);
+        when(productRepository.updateReturning(id, request, null))
+                .thenReturn(Optional.of(new ProductWriteResult(true, written)));
+
+        // Act
+        ProductResponse response = productService.updateProduct(id, request, null);
+
+        // Assert
+        assertSame(written, response);
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).saveAndFlush(any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(id, Operation.UPDATED));
+    }
+
+    @Test
+    void updateProduct_shouldWriteSanitizedValues() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        ProductUpdateRequest request = new ProductUpdateRequest("  Padded  ", "  ", BigDecimal.ONE, 1);
+        when(productRepository.updateReturning(eq(id), any(), eq(3L))).thenReturn(Optional.of(
+                new ProductWriteResult(true, ProductTestData.createResponse())));
+
+        // Act
+        productService.updateProduct(id, request, 3L);
+
+        // Assert
+        verify(productRepository).updateReturning(id, new ProductUpdateRequest("Padded", null, BigDecimal.ONE, 1), 3L);
+    }
+
+    @Test
+    void updateProduct_shouldThrowProductNotFoundException_WhenMissing() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        ProductUpdateRequest request = ProductTestData.updateRequest();
+        when(productRepository.updateReturning(id, request, null)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productService.updateProduct(id, request, null));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateProduct_shouldThrowPreconditionFailed_WhenVersionIsStale() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        ProductUpdateRequest request = ProductTestData.updateRequest();
+        ProductResponse current = new ProductResponse(id, ProductTestData.DEFAULT_NAME, null, BigDecimal.ONE, 1,
+                Instant.now(), 5L);
+        when(productRepository.updateReturning(id, request, 4L))
+                .thenReturn(Optional.of(new ProductWriteResult(false, current)));
+
+        // Act & Assert
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class,
+                () -> productService.updateProduct(id, request, 4L));
+        assertTrue(exception.getMessage().endsWith("current version is 5"));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void patchProduct_shouldChangeOnlyGivenFields() {
         // Arrange
         Product existingProduct = ProductTestData.createProduct();
+        existingProduct.setVersion(3L);
         UUID id = existingProduct.getId();
-        ProductUpdateRequest request = ProductTestData.updateRequest();
+        when(productRepository.findById(id)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            product.setVersion(product.getVersion() + 1);
+            return product;
+        });
+        ProductPatchRequest request = new ProductPatchRequest(null, null, new BigDecimal("5.00"), null, 3L);
+
+        // Act
+        ProductResponse response = productService.patchProduct(id, request, null);
+
+        // Assert
+        assertEquals(new BigDecimal("5.00"), response.price());
+        assertEquals(ProductTestData.DEFAULT_NAME, response.name());
+        assertEquals(ProductTestData.DEFAULT_DESC, response.description());
+        assertEquals(ProductTestData.DEFAULT_STOCK, response.stock());
+        assertEquals(4L, response.version());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(id, Operation.UPDATED, List.of("price")));
+    }
 
+    @Test
+    void patchProduct_shouldClearDescription_WhenBlank() {
+        // Arrange
+        Product existingProduct = ProductTestData.createProduct();
+        UUID id = existingProduct.getId();
         when(productRepository.findById(id)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
-        ProductResponse response = productService.updateProduct(id, request);
+        ProductResponse response = productService.patchProduct(id,
+                new ProductPatchRequest(null, " ", null, null, null), null);
 
         // Assert
-        assertEquals(id, response.id());
-        assertEquals(request.name(), response.name());
-        assertEquals(request.description(), response.description());
-        assertEquals(request.price(), response.price());
-        assertEquals(request.stock(), response.stock());
+        assertNull(response.description());
+        assertEquals(ProductTestData.DEFAULT_NAME, response.name());
+    }
 
-        verify(productRepository, times(1)).findById(id);
+    @Test
+    void patchProduct_shouldThrowOptimisticLockingFailure_WhenBodyVersionIsStale() {
+        // Arrange
+        Product existingProduct = ProductTestData.createProduct();
+        existingProduct.setVersion(2L);
+        UUID id = existingProduct.getId();
+        when(productRepository.findById(id)).thenReturn(Optional.of(existingProduct));
+        ProductPatchRequest request = new ProductPatchRequest("New", null, null, null, 1L);
 
-        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
-        verify(productRepository, times(1)).save(productCaptor.capture());
-        Product savedProduct = productCaptor.getValue();
-        assertEquals(request.name(), savedProduct.getName());
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productService.patchProduct(id, request, null));
+        assertEquals(ProductTestData.DEFAULT_NAME, existingProduct.getName());
+        verify(productRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void updateProduct_shouldThrowProductNotFoundException_WhenMissing() {
+    void patchProduct_shouldRejectEmptyPatch() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.patchProduct(UUID.randomUUID(),
+                new ProductPatchRequest(null, null, null, null, 1L), null));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void decrementStock_shouldPublishEvent_WhenApplied() {
         // Arrange
         UUID id = UUID.randomUUID();
-        ProductUpdateRequest request = ProductTestData.updateRequest();
-        when(productRepository.findById(id)).thenReturn(Optional.empty());
+        when(productRepository.decrementStock(id, 3)).thenReturn(Optional.of(new ProductStockResponse(id, true, 7)));
+
+        // Act
+        ProductStockResponse result = productService.decrementStock(id, 3);
+
+        // Assert
+        assertTrue(result.applied());
+        assertEquals(7, result.stock());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(id, Operation.UPDATED, List.of("stock")));
+    }
+
+    @Test
+    void decrementStock_shouldReportWithoutEvent_WhenStockInsufficient() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(productRepository.decrementStock(id, 3)).thenReturn(Optional.of(new ProductStockResponse(id, false, 2)));
+
+        // Act
+        ProductStockResponse result = productService.decrementStock(id, 3);
+
+        // Assert
+        assertFalse(result.applied());
+        assertEquals(2, result.stock());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void decrementStock_shouldThrowProductNotFoundException_WhenMissing() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(productRepository.decrementStock(id, 1)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(ProductNotFoundException.class, () -> productService.updateProduct(id, request));
-        verify(productRepository, never()).save(any());
+        assertThrows(ProductNotFoundException.class, () -> productService.decrementStock(id, 1));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void deleteProduct_shouldDelete_WhenExists() {
+    void deleteProduct_shouldDeleteInOneStatement_WhenExists() {
         // Arrange
         UUID id = UUID.randomUUID();
-        when(productRepository.existsById(id)).thenReturn(true);
+        when(productRepository.deleteReturning(id, null))
+                .thenReturn(Optional.of(new ProductWriteResult(true, ProductTestData.createResponse())));
 
         // Act
-        productService.deleteProduct(id);
+        productService.deleteProduct(id, null);
 
         // Assert
-        verify(productRepository, times(1)).existsById(id);
-        verify(productRepository, times(1)).deleteById(id);
+        verify(productRepository, never()).existsById(any());
+        verify(productRepository, never()).deleteById(any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(id, Operation.DELETED));
     }
 
     @Test
     void deleteProduct_shouldThrowProductNotFoundException_WhenMissing() {
         // Arrange
         UUID id = UUID.randomUUID();
-        when(productRepository.existsById(id)).thenReturn(false);
+        when(productRepository.deleteReturning(id, null)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(id));
-        verify(productRepository, never()).deleteById(any());
+        assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(id, null));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteProduct_shouldPassExpectedVersion_WhenGiven() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(productRepository.deleteReturning(id, 2L))
+                .thenReturn(Optional.of(new ProductWriteResult(true, ProductTestData.createResponse())));
+
+        // Act
+        productService.deleteProduct(id, 2L);
+
+        // Assert
+        verify(productRepository).deleteReturning(id, 2L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(id, Operation.DELETED));
+    }
+
+    @Test
+    void deleteProduct_shouldThrowPreconditionFailed_WhenVersionIsStale() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(productRepository.deleteReturning(id, 1L))
+                .thenReturn(Optional.of(new ProductWriteResult(false, ProductTestData.createResponse())));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> productService.deleteProduct(id, 1L));
+        verifyNoInteractions(eventPublisher);
     }
 }
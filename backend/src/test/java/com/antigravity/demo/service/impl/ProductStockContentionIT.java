@@ -0,0 +1,99 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductStockResponse;
+import com.antigravity.demo.exception.ProductNotFoundException;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers one hot product with more concurrent single-unit decrements than it
+ * has stock. Every unit must be sold exactly once: no lost updates, no
+ * overselling, and every caller past the last unit told so without an error.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductStockContentionIT extends PostgresTestContainerConfig {
+
+    private static final int INITIAL_STOCK = 500;
+    private static final int DECREMENTS = 800;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void concurrentDecrementsShouldSellEachUnitExactlyOnce() throws Exception {
+        ProductResponse product = productService.createProduct(
+                new ProductCreateRequest("Hot SKU", "Flash sale", BigDecimal.TEN, INITIAL_STOCK));
+        // Cached before the decrements, so a stale second-level cache entry would show below
+        productService.getProduct(product.id());
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < DECREMENTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ProductStockResponse result = productService.decrementStock(product.id(), 1);
+                    (result.applied() ? applied : insufficient).incrementAndGet();
+                    assertTrue(result.stock() >= 0, "Stock went negative: " + result.stock());
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+            System.out.printf("%d concurrent decrements on one product from %d threads in %d ms (%.0f ops/s)%n",
+                    DECREMENTS, THREADS, elapsedMillis, DECREMENTS * 1000.0 / Math.max(elapsedMillis, 1));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(INITIAL_STOCK, applied.get());
+        assertEquals(DECREMENTS - INITIAL_STOCK, insufficient.get());
+        ProductResponse after = productService.getProduct(product.id());
+        assertEquals(0, after.stock());
+        assertEquals(product.version() + INITIAL_STOCK, after.version());
+    }
+
+    @Test
+    void decrementShouldLeaveStockUntouched_WhenQuantityExceedsIt() {
+        ProductResponse product = productService.createProduct(
+                new ProductCreateRequest("Scarce", null, BigDecimal.ONE, 2));
+
+        ProductStockResponse result = productService.decrementStock(product.id(), 3);
+
+        assertFalse(result.applied());
+        assertEquals(2, result.stock());
+        assertEquals(2, productService.getProduct(product.id()).stock());
+    }
+
+    @Test
+    void decrementShouldThrow_WhenProductMissing() {
+        assertThrows(ProductNotFoundException.class, () -> productService.decrementStock(UUID.randomUUID(), 1));
+    }
+}
@@ -0,0 +1,120 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.exception.PreconditionFailedException;
+import com.antigravity.demo.exception.ProductNotFoundException;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import com.antigravity.demo.testsupport.SqlStatementRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the single round trip of updates and deletes: success, a missing
+ * product and a stale version are each decided by one statement.
+ */
+@SpringBootTest(properties = SqlStatementRecorder.PROPERTY)
+@ActiveProfiles("test")
+class ProductUpdateDeleteStatementCountIT extends PostgresTestContainerConfig {
+
+    private static final ProductUpdateRequest UPDATE =
+            new ProductUpdateRequest("Updated", "New description", new BigDecimal("20.00"), 7);
+
+    @Autowired
+    private ProductService productService;
+
+    private ProductResponse createCachedProduct() {
+        ProductResponse product = productService.createProduct(
+                new ProductCreateRequest("Original", "Description", BigDecimal.TEN, 3));
+        // Loads the product into the second-level cache
+        productService.getProduct(product.id());
+        return product;
+    }
+
+    private static List<String> recordedDuring(Executable action) throws Throwable {
+        SqlStatementRecorder.clear();
+        action.execute();
+        return SqlStatementRecorder.statements();
+    }
+
+    @Test
+    void updateShouldTakeOneStatement() throws Throwable {
+        ProductResponse product = createCachedProduct();
+        ProductResponse[] updated = new ProductResponse[1];
+
+        List<String> statements = recordedDuring(
+                () -> updated[0] = productService.updateProduct(product.id(), UPDATE, product.version()));
+
+        assertEquals(1, statements.size(), "Expected one UPDATE ... RETURNING: " + statements);
+        assertEquals("Updated", updated[0].name());
+        assertEquals(product.version() + 1, updated[0].version());
+        assertEquals(product.createdAt().toEpochMilli(), updated[0].createdAt().toEpochMilli());
+
+        ProductResponse reloaded = productService.getProduct(product.id());
+        assertEquals("Updated", reloaded.name(), "Cached entity should be evicted after commit");
+        assertEquals(7, reloaded.stock());
+        assertEquals(updated[0].version(), reloaded.version());
+    }
+
+    @Test
+    void updateOfMissingProductShouldTakeOneStatement() throws Throwable {
+        List<String> statements = recordedDuring(() -> assertThrows(ProductNotFoundException.class,
+                () -> productService.updateProduct(UUID.randomUUID(), UPDATE, null)));
+
+        assertEquals(1, statements.size(), statements.toString());
+    }
+
+    @Test
+    void updateWithStaleVersionShouldTakeOneStatementAndWriteNothing() throws Throwable {
+        ProductResponse product = createCachedProduct();
+
+        List<String> statements = recordedDuring(() -> assertThrows(PreconditionFailedException.class,
+                () -> productService.updateProduct(product.id(), UPDATE, product.version() + 1)));
+
+        assertEquals(1, statements.size(), statements.toString());
+        ProductResponse current = productService.getProduct(product.id());
+        assertEquals("Original", current.name());
+        assertEquals(product.version(), current.version());
+    }
+
+    @Test
+    void deleteShouldTakeOneStatement() throws Throwable {
+        ProductResponse product = createCachedProduct();
+
+        List<String> statements = recordedDuring(() -> productService.deleteProduct(product.id(), product.version()));
+
+        assertEquals(1, statements.size(), "Expected one DELETE: " + statements);
+        assertThrows(ProductNotFoundException.class, () -> productService.getProduct(product.id()),
+                "Cached entity should be evicted after commit");
+    }
+
+    @Test
+    void deleteOfMissingProductShouldTakeOneStatement() throws Throwable {
+        List<String> statements = recordedDuring(() -> assertThrows(ProductNotFoundException.class,
+                () -> productService.deleteProduct(UUID.randomUUID(), null)));
+
+        assertEquals(1, statements.size(), statements.toString());
+    }
+
+    @Test
+    void deleteWithStaleVersionShouldTakeOneStatementAndKeepTheProduct() throws Throwable {
+        ProductResponse product = createCachedProduct();
+
+        List<String> statements = recordedDuring(() -> assertThrows(PreconditionFailedException.class,
+                () -> productService.deleteProduct(product.id(), product.version() + 1)));
+
+        assertEquals(1, statements.size(), statements.toString());
+        assertEquals("Original", productService.getProduct(product.id()).name());
+    }
+}
@@ -0,0 +1,34 @@
+package com.antigravity.demo.service.impl;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductViewCounterTest {
+
+    @Test
+    void recordView_shouldNotAllocate_WhenProductAlreadyCounted() {
+        // Arrange
+        ProductViewCounter counter = new ProductViewCounter(null);
+        UUID id = UUID.randomUUID();
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < 100_000; i++) {
+            counter.recordView(id);
+        }
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            counter.recordView(id);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertTrue(allocated < 1024, allocated + " bytes allocated for 1,000,000 views");
+    }
+}
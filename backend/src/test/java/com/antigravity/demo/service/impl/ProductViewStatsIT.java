@@ -0,0 +1,111 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductTrendingItem;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "application.products.views.flush-interval=1h")
+@ActiveProfiles("test")
+class ProductViewStatsIT extends PostgresTestContainerConfig {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductViewCounter viewCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void drainCounters() {
+        viewCounter.flush();
+    }
+
+    private ProductResponse createProduct(String name) {
+        return productService.createProduct(new ProductCreateRequest(name, null, BigDecimal.ONE, 1));
+    }
+
+    private long storedViews(UUID id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT coalesce(sum(view_count), 0) FROM product_stats WHERE product_id = ?", Long.class, id);
+    }
+
+    @Test
+    void concurrentReadsShouldBeCountedExactlyAndFlushedInOneUpsert() throws Exception {
+        ProductResponse product = createProduct("Viewed");
+        int threads = 16;
+        int readsPerThread = 250;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < readsPerThread; i++) {
+                        productService.getProduct(product.id());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, storedViews(product.id()), "Reads must not write to the database");
+        viewCounter.flush();
+        assertEquals(threads * readsPerThread, storedViews(product.id()));
+
+        productService.getProduct(product.id());
+        viewCounter.flush();
+        assertEquals(threads * readsPerThread + 1, storedViews(product.id()));
+    }
+
+    @Test
+    void trendingShouldRankByRecentViewsAndSkipDeletedProducts() {
+        ProductResponse popular = createProduct("Popular");
+        ProductResponse niche = createProduct("Niche");
+        ProductResponse gone = createProduct("Gone");
+        for (int i = 0; i < 50; i++) {
+            productService.getProduct(popular.id());
+        }
+        for (int i = 0; i < 20; i++) {
+            productService.getProduct(niche.id());
+        }
+        for (int i = 0; i < 100; i++) {
+            productService.getProduct(gone.id());
+        }
+        productService.deleteProduct(gone.id(), null);
+        viewCounter.flush();
+
+        List<ProductTrendingItem> items = productService.getTrendingProducts(100).items();
+        List<UUID> ranking = items.stream().map(item -> item.product().id()).toList();
+
+        assertTrue(ranking.contains(popular.id()) && ranking.contains(niche.id()), ranking.toString());
+        assertTrue(ranking.indexOf(popular.id()) < ranking.indexOf(niche.id()), ranking.toString());
+        assertTrue(items.get(ranking.indexOf(popular.id())).views() >= 50);
+        assertFalse(ranking.contains(gone.id()));
+        assertEquals(0, storedViews(gone.id()), "Views of deleted products are not stored");
+    }
+}
@@ -0,0 +1,214 @@
+package com.antigravity.demo.service.impl;
+
+import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
+import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
+import com.antigravity.demo.exception.PreconditionFailedException;
+import com.antigravity.demo.exception.ProductNotFoundException;
+import com.antigravity.demo.service.ProductService;
+import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Issues concurrent writes with group commit enabled. The generous max-wait
+ * makes writes started together land in the same batch.
+ */
+@SpringBootTest(properties = {
+        "application.products.group-commit.enabled=true",
+        "application.products.group-commit.max-wait=50ms"})
+@ActiveProfiles("test")
+class ProductWriteBatcherIT extends PostgresTestContainerConfig {
+
+    private static final int WRITERS = 40;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static ProductCreateRequest createRequest(String name) {
+        return new ProductCreateRequest(name, null, BigDecimal.ONE, 1);
+    }
+
+    /** Starts all writes at once and returns their futures in order. */
+    private static <T> List<Future<T>> runConcurrently(List<Callable<T>> writes) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writes.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> write : writes) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return write.call();
+                }));
+            }
+            start.countDown();
+            for (Future<T> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ignored) {
+                    // Inspected by the caller
+                }
+            }
+            return futures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Throwable failureOf(Future<?> future) {
+        return assertThrows(ExecutionException.class, future::get).getCause();
+    }
+
+    private DistributionSummary batchSizes() {
+        return meterRegistry.get("products.group-commit.batch-size").summary();
+    }
+
+    @Test
+    void concurrentCreatesAndUpdatesShouldShareCommits() throws Exception {
+        long batchesBefore = batchSizes().count();
+        double writesBefore = batchSizes().totalAmount();
+
+        List<Callable<ProductResponse>> creates = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            String name = "Grouped " + i;
+            creates.add(() -> productService.createProduct(createRequest(name)));
+        }
+        List<ProductResponse> created = new ArrayList<>();
+        for (Future<ProductResponse> future : runConcurrently(creates)) {
+            created.add(future.get());
+        }
+
+        List<Callable<ProductResponse>> updates = new ArrayList<>();
+        for (ProductResponse product : created) {
+            updates.add(() -> productService.updateProduct(product.id(),
+                    new ProductUpdateRequest(product.name() + " renamed", null, BigDecimal.TEN, 2), product.version()));
+        }
+        List<Future<ProductResponse>> updated = runConcurrently(updates);
+
+        for (int i = 0; i < WRITERS; i++) {
+            ProductResponse product = updated.get(i).get();
+            assertEquals(created.get(i).id(), product.id());
+            assertEquals("Grouped " + i + " renamed", product.name());
+            assertEquals("Grouped " + i + " renamed", productService.getProduct(product.id()).name());
+        }
+        long batches = batchSizes().count() - batchesBefore;
+        double writes = batchSizes().totalAmount() - writesBefore;
+        assertEquals(2 * WRITERS, writes);
+        assertTrue(batches < writes / 4, batches + " commits for " + writes + " writes");
+    }
+
+    @Test
+    void businessErrorsShouldOnlyFailTheirOwnCaller() throws Exception {
+        ProductResponse existing = productService.createProduct(createRequest("Versioned"));
+
+        List<Callable<ProductResponse>> writes = new ArrayList<>();
+        writes.add(() -> productService.updateProduct(UUID.randomUUID(),
+                new ProductUpdateRequest("Missing", null, BigDecimal.ONE, 1), null));
+        writes.add(() -> productService.updateProduct(existing.id(),
+                new ProductUpdateRequest("Stale", null, BigDecimal.ONE, 1), existing.version() + 1));
+        for (int i = 0; i < WRITERS; i++) {
+            writes.add(() -> productService.createProduct(createRequest("Bystander")));
+        }
+        List<Future<ProductResponse>> results = runConcurrently(writes);
+
+        assertInstanceOf(ProductNotFoundException.class, failureOf(results.get(0)));
+        assertInstanceOf(PreconditionFailedException.class, failureOf(results.get(1)));
+        assertEquals("Versioned", productService.getProduct(existing.id()).name());
+        for (Future<ProductResponse> bystander : results.subList(2, results.size())) {
+            assertEquals("Bystander", productService.getProduct(bystander.get().id()).name());
+        }
+    }
+
+    @Test
+    void databaseErrorShouldOnlyFailTheOffendingWrite() throws Exception {
+        List<Callable<ProductResponse>> writes = new ArrayList<>();
+        // Passes request validation in the service but overflows the price column
+        writes.add(() -> productService.createProduct(
+                new ProductCreateRequest("Overflowing", null, new BigDecimal("1e20"), 1)));
+        for (int i = 0; i < WRITERS; i++) {
+            writes.add(() -> productService.createProduct(createRequest("Bystander")));
+        }
+        List<Future<ProductResponse>> results = runConcurrently(writes);
+
+        assertInstanceOf(DataAccessException.class, failureOf(results.get(0)));
+        for (Future<ProductResponse> bystander : results.subList(1, results.size())) {
+            assertEquals("Bystander", productService.getProduct(bystander.get().id()).name());
+        }
+    }
+
+    @Test
+    void writesAfterShutdownShouldRunAloneInsteadOfHanging() throws Exception {
+        // Arrange
+        ProductWriteBatcher batcher = standaloneBatcher(Duration.ofSeconds(5));
+        batcher.shutdown();
+
+        // Act
+        Boolean inTransaction = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> batcher.execute(TransactionSynchronizationManager::isActualTransactionActive));
+
+        // Assert
+        assertTrue(inTransaction);
+    }
+
+    @Test
+    void callerShouldGiveUp_WhenBatchTakesLongerThanTimeout() throws Exception {
+        // Arrange
+        ProductWriteBatcher batcher = standaloneBatcher(Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Act
+            IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> assertThrows(IllegalStateException.class, () -> batcher.execute(() -> {
+                        try {
+                            return release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })));
+
+            // Assert
+            assertEquals("Timed out waiting for group commit", failure.getMessage());
+        } finally {
+            release.countDown();
+            batcher.shutdown();
+        }
+    }
+
+    private ProductWriteBatcher standaloneBatcher(Duration timeout) {
+        ProductWriteBatcher batcher = new ProductWriteBatcher(transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "timeout", timeout);
+        batcher.start();
+        return batcher;
+    }
+}
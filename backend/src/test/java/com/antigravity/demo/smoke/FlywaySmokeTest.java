@@ -1,6 +1,8 @@
 package com.antigravity.demo.smoke;
 
 import com.antigravity.demo.testsupport.PostgresTestContainerConfig;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +10,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
+import javax.sql.DataSource;
+
 @SpringBootTest
 @ActiveProfiles("test")
 class FlywaySmokeTest extends PostgresTestContainerConfig {
@@ -15,6 +19,9 @@ class FlywaySmokeTest extends PostgresTestContainerConfig {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private DataSource dataSource;
+
     @Test
     void migrationsAreApplied() {
         // Verify that the users table exists (created by V2)
@@ -29,4 +36,42 @@ class FlywaySmokeTest extends PostgresTestContainerConfig {
                 Integer.class);
         Assertions.assertEquals(1, productsTableCount, "Products table should exist");
     }
+
+    @Test
+    void emailIndexMigrationStopsOnCaseDuplicates() {
+        // Arrange: a database from before V9, in a schema of its own
+        Flyway beforeV9 = flyway("8");
+        beforeV9.migrate();
+        jdbcTemplate.update("""
+                INSERT INTO v9_precheck.users (id, email, password_hash, role, created_at) VALUES
+                (gen_random_uuid(), 'dup@example.com', 'x', 'USER', now()),
+                (gen_random_uuid(), 'Dup@Example.com', 'x', 'USER', now()),
+                (gen_random_uuid(), 'single@example.com', 'x', 'USER', now())
+                """);
+
+        try {
+            // Act
+            FlywayException failure = Assertions.assertThrows(FlywayException.class, () -> flyway("9").migrate());
+
+            // Assert: the conflicts are named, and nothing was changed
+            Assertions.assertTrue(failure.getMessage().contains("dup@example.com"), failure.getMessage());
+            Assertions.assertTrue(failure.getMessage().contains("Dup@Example.com"), failure.getMessage());
+            Assertions.assertFalse(failure.getMessage().contains("single@example.com"), failure.getMessage());
+            Integer lowerIndexCount = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_indexes WHERE schemaname = 'v9_precheck' AND indexname = 'ux_users_email_lower'",
+                    Integer.class);
+            Assertions.assertEquals(0, lowerIndexCount);
+        } finally {
+            beforeV9.clean();
+        }
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas("v9_precheck")
+                .target(target)
+                .cleanDisabled(false)
+                .load();
+    }
 }
@@ -72,6 +72,18 @@ public class JwtTestTokens {
                 .compact();
     }
 
+    public static String createTokenWithoutExpiration() {
+        Map<String, Object> extraClaims = new HashMap<>();
+        extraClaims.put("role", "ADMIN");
+
+        return Jwts.builder()
+                .setClaims(extraClaims)
+                .setSubject("admin@test.com")
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
     public static String createTokenWithWrongSecret() {
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("role", "USER");
@@ -1,6 +1,7 @@
 package com.antigravity.demo.testsupport;
 
 import com.antigravity.demo.dto.ProductDTOs.ProductCreateRequest;
+import com.antigravity.demo.dto.ProductDTOs.ProductResponse;
 import com.antigravity.demo.dto.ProductDTOs.ProductUpdateRequest;
 import com.antigravity.demo.model.Product;
 
@@ -26,6 +27,11 @@ public class ProductTestData {
         return new ProductUpdateRequest("Updated Name", "Updated Desc", new BigDecimal("149.99"), 20);
     }
 
+    public static ProductResponse createResponse() {
+        return new ProductResponse(UUID.randomUUID(), DEFAULT_NAME, DEFAULT_DESC, DEFAULT_PRICE, DEFAULT_STOCK,
+                Instant.now(), 0L);
+    }
+
     public static Product createProduct() {
         Product product = new Product();
         product.setId(UUID.randomUUID());
@@ -0,0 +1,47 @@
+package com.antigravity.demo.testsupport;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends to the database. Enable it for a test class
+ * with {@code @SpringBootTest(properties = SqlStatementRecorder.PROPERTY)}.
+ * {@link #statements()} only returns what the calling thread sent, so background
+ * work such as catalog snapshot rebuilds does not leak into the count.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + "com.antigravity.demo.testsupport.SqlStatementRecorder";
+
+    private record Recorded(Thread thread, String sql) {
+    }
+
+    private static final List<Recorded> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(new Recorded(Thread.currentThread(), sql));
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return STATEMENTS.stream()
+                    .filter(recorded -> recorded.thread() == Thread.currentThread())
+                    .map(Recorded::sql)
+                    .toList();
+        }
+    }
+}
@@ -8,6 +8,7 @@ export type Product = {
     stock: number;
     createdAt?: string;
     created_at?: string;
+    version?: number;
 };
 
 export type ProductUpsertRequest = {
@@ -30,15 +31,20 @@ export const createProduct = async (
     return response.data;
 };
 
+// The backend rejects the write with 412 if the product changed since `version`
+const ifMatch = (version?: number) =>
+    version === undefined ? undefined : { "If-Match": `"${version}"` };
+
 export const updateProduct = async (
     _token: string,
     id: string,
-    payload: ProductUpsertRequest
+    payload: ProductUpsertRequest,
+    version?: number
 ): Promise<Product> => {
-    const response = await api.put<Product>(`/products/${id}`, payload);
+    const response = await api.put<Product>(`/products/${id}`, payload, { headers: ifMatch(version) });
     return response.data;
 };
 
-export const deleteProduct = async (_token: string, id: string): Promise<void> => {
-    await api.delete(`/products/${id}`);
+export const deleteProduct = async (_token: string, id: string, version?: number): Promise<void> => {
+    await api.delete(`/products/${id}`, { headers: ifMatch(version) });
 };
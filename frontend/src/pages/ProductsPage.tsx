@@ -121,7 +121,7 @@ const ProductsPage: React.FC = () => {
                 description: editDraft.description?.trim(),
                 price: Number(editDraft.price),
                 stock: parseInt(String(editDraft.stock), 10),
-            });
+            }, products.find((p) => p.id === id)?.version);
             setEditingId(null);
             await fetchProducts();
         } catch (err: any) {
@@ -138,7 +138,7 @@ const ProductsPage: React.FC = () => {
 
         setInFlight(true);
         try {
-            await deleteProduct(token, id);
+            await deleteProduct(token, id, products.find((p) => p.id === id)?.version);
             await fetchProducts();
         } catch (err: any) {
             const apiError = err as NormalizedApiError;